@@ -0,0 +1,42 @@
+package blockworld;
+
+// The Manhattan distance plus the moves the agent needs before it can move a misplaced letter: if the closest misplaced letter
+// is k cells away from the agent, the first k - 1 moves only go through empty cells or move letters already in place
+// (which never lowers the Manhattan distance), so at least k - 1 + Manhattan distance moves are left.
+public class AgentDistanceHeuristic implements Heuristic {
+
+	@Override
+	public int estimate(SearchState state) {
+
+		int distance = state.getDistanceToSolution();
+
+		if (distance == 0) {
+			return 0;
+		}
+
+		int d = state.getDimension();
+		int agentR = state.getAgentCell() / d;
+		int agentC = state.getAgentCell() % d;
+
+		int closest = Integer.MAX_VALUE;
+
+		for (int letter = 0; letter < d - 1; letter++) {
+
+			int cell = state.getLetterCell(letter);
+
+			// The letter 'A' + letter belongs to the cell (letter + 1, 1).
+			if (cell != (letter + 1) * d + 1) {
+				closest = Math.min(closest, Math.abs(cell / d - agentR) + Math.abs(cell % d - agentC));
+			}
+		}
+
+		return distance + closest - 1;
+	}
+
+
+	@Override
+	public String getDescription() {
+
+		return "Manhattan distance + agent distance";
+	}
+}
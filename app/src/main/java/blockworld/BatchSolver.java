@@ -0,0 +1,553 @@
+package blockworld;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * The headless entry point: solves every instance of a file with the same strategy and budgets, on a bounded pool of threads,
+ * and writes a result line (JSONL or CSV) per instance as soon as it is solved. No AWT class is ever loaded.
+ *
+ * An instance is a line of the file: the dimension, then optionally the agent row and column and the row and column of every letter
+ * (as for BlockworldPuzzleSolver.setCustomInitialState), separated by spaces or commas. A line with the dimension only is the default
+ * initial state of the grid. Blank lines and lines starting with # are skipped.
+ *
+ * Usage: java -cp app/target/classes blockworld.BatchSolver [options] <instance file>
+ */
+
+public class BatchSolver {
+
+	private final static String USAGE = "Usage: java blockworld.BatchSolver [options] <instance file>\n"
+			+ "  --strategy S        B, D, I, A, F, T, M or L (default A)\n"
+			+ "  --threads N         the number of instances solved at the same time (default: the number of processors)\n"
+			+ "  --max-nodes N       the node budget of every instance (0 for none)\n"
+			+ "  --max-fringe N      the budget of nodes in memory of every instance (0 for none)\n"
+			+ "  --time-limit MS     the time budget of every instance, in milliseconds (0 for none)\n"
+			+ "  --memory-limit N    the nodes SMA* keeps in memory\n"
+			+ "  --graph             graph search (prunes the states reached before)\n"
+			+ "  --heuristic H       manhattan, agent, conflict or strongest (A, F and M, default manhattan)\n"
+			+ "  --pdb               the pattern database heuristic (A, F and M)\n"
+			+ "  --exact             the exact distance database heuristic (A, F and M, grids up to 5 x 5)\n"
+			+ "  --random            random order of moves\n"
+			+ "  --seed N            the seed of the random moves (the instances get reproducible seeds of their own)\n"
+			+ "  --format F          jsonl or csv (default jsonl)\n"
+			+ "  --moves             also writes the moves of every solution\n"
+			+ "  --cache FILE        reuses the results cached in FILE (and caches the new ones; random moves are never cached)\n"
+			+ "  --output FILE       writes the results to FILE instead of the standard output";
+
+	// The options followed by a value.
+	private final static List<String> VALUE_OPTIONS = Arrays.asList("--strategy", "--threads", "--max-nodes", "--max-fringe", 
+			"--time-limit", "--memory-limit", "--seed", "--format", "--output", "--cache", "--heuristic");
+
+	private final static String CSV_HEADER = "line,dimension,strategy,termination,depth,distance,nodes,peak_nodes,duplicates,wall_ms,cached,moves,error";
+
+	private char strategy = 'A';
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long maxNodes;
+	private long maxFringeSize;
+	private long timeLimit;
+	private int memoryLimit = 1 << 20;
+	private boolean graphSearch;
+	private Heuristic heuristic = Heuristic.MANHATTAN;
+	private boolean patternDatabase;
+	private boolean distanceDatabase;
+	private boolean randomMoves;
+	private Long seed;
+	private boolean csv;
+	private boolean moves;
+	private File output;
+	private File cacheFile;
+	private File instances;
+
+	// The results are written by the threads of the pool, one whole line at a time.
+	private Writer results;
+
+	// The cache shared by every instance (null if there is none).
+	private SolutionCache cache;
+
+	// The databases of every grid size, loaded once and handed to the solvers of all the instances of that size.
+	private final Map<Integer, PatternDatabase> patternDatabases = new ConcurrentHashMap<Integer, PatternDatabase>();
+	private final Map<Integer, DistanceDatabase> distanceDatabases = new ConcurrentHashMap<Integer, DistanceDatabase>();
+
+	private final AtomicInteger solved = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		BatchSolver batch = new BatchSolver();
+
+		try {
+			batch.parseArguments(args);
+
+		} catch (IllegalArgumentException e) {
+
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+
+		try (Writer results = new BufferedWriter(batch.output == null
+				? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+				: new OutputStreamWriter(new FileOutputStream(batch.output), StandardCharsets.UTF_8))) {
+
+			batch.run(results);
+		}
+	}
+
+
+	void parseArguments(String[] args) {
+
+		for (int i = 0; i < args.length; i++) {
+
+			String argument = args[i];
+
+			if (!argument.startsWith("--")) {
+
+				if (instances != null) {
+					throw new IllegalArgumentException("Only one instance file can be given.");
+				}
+				instances = new File(argument);
+				continue;
+			}
+
+			switch(argument) {
+
+				case "--graph": {
+					graphSearch = true;
+					break;
+				}
+				case "--pdb": {
+					patternDatabase = true;
+					break;
+				}
+				case "--exact": {
+					distanceDatabase = true;
+					break;
+				}
+				case "--random": {
+					randomMoves = true;
+					break;
+				}
+				case "--moves": {
+					moves = true;
+					break;
+				}
+				default: {
+
+					if (!VALUE_OPTIONS.contains(argument)) {
+						throw new IllegalArgumentException("This option is not recognized: " + argument);
+					}
+					if (i + 1 == args.length) {
+						throw new IllegalArgumentException("The option " + argument + " needs a value.");
+					}
+					setOption(argument, args[++i]);
+				}
+			}
+		}
+
+		if (instances == null) {
+			throw new IllegalArgumentException("No instance file was given.");
+		}
+	}
+
+
+	private void setOption(String option, String value) {
+
+		try {
+			switch(option) {
+
+				case "--strategy": {
+
+					if (value.length() != 1 || !TreeSearch.isStrategy(value.charAt(0))) {
+						throw new IllegalArgumentException("This strategy is not recognized: " + value);
+					}
+					strategy = value.charAt(0);
+					break;
+				}
+				case "--threads": {
+
+					threads = Integer.parseInt(value);
+					if (threads < 1) {
+						throw new IllegalArgumentException("The number of threads needs to be at least 1.");
+					}
+					break;
+				}
+				case "--max-nodes": {
+					maxNodes = Long.parseLong(value);
+					break;
+				}
+				case "--max-fringe": {
+					maxFringeSize = Long.parseLong(value);
+					break;
+				}
+				case "--time-limit": {
+					timeLimit = Long.parseLong(value);
+					break;
+				}
+				case "--memory-limit": {
+					memoryLimit = Integer.parseInt(value);
+					if (memoryLimit < 2) {
+						throw new IllegalArgumentException("The memory limit needs to be at least 2 nodes.");
+					}
+					break;
+				}
+				case "--seed": {
+					seed = Long.parseLong(value);
+					break;
+				}
+				case "--format": {
+
+					if (!value.equals("jsonl") && !value.equals("csv")) {
+						throw new IllegalArgumentException("The format needs to be jsonl or csv.");
+					}
+					csv = value.equals("csv");
+					break;
+				}
+				case "--output": {
+					output = new File(value);
+					break;
+				}
+				case "--heuristic": {
+					heuristic = parseHeuristic(value);
+					break;
+				}
+				case "--cache": {
+					cacheFile = new File(value);
+					break;
+				}
+				default: {
+					throw new IllegalArgumentException("This option is not recognized: " + option);
+				}
+			}
+
+		} catch (NumberFormatException e) {
+
+			throw new IllegalArgumentException("The option " + option + " needs a number: " + value);
+		}
+	}
+
+
+	// Reads the instances one at a time and solves them on the pool. At most twice as many instances as threads are read ahead,
+	// so a file of any size is streamed through a bounded amount of memory.
+	void run(Writer results) throws IOException, InterruptedException {
+
+		this.results = results;
+
+		if (cacheFile != null) {
+			cache = new SolutionCache(cacheFile, SolutionCache.DEFAULT_CAPACITY);
+		}
+
+		if (csv) {
+			writeLine(CSV_HEADER);
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Semaphore readAhead = new Semaphore(threads * 2);
+		SplittableRandom seeds = (seed == null) ? new SplittableRandom() : new SplittableRandom(seed);
+
+		long startTime = System.nanoTime();
+		int count = 0;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(instances), StandardCharsets.UTF_8))) {
+
+			String line;
+			int lineNumber = 0;
+
+			while ((line = reader.readLine()) != null) {
+
+				lineNumber++;
+				line = line.trim();
+
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+
+				// The seeds are drawn in the order of the file, so the results do not depend on the scheduling.
+				long instanceSeed = seeds.nextLong();
+				String instance = line;
+				int number = lineNumber;
+
+				readAhead.acquire();
+				count++;
+
+				pool.execute(() -> {
+
+					try {
+						solve(number, instance, instanceSeed);
+					}
+					finally {
+						readAhead.release();
+					}
+				});
+			}
+
+		} finally {
+
+			pool.shutdown();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+			if (cache != null) {
+				cache.close();
+			}
+		}
+
+		System.err.println("Solved " + solved.get() + " of " + count + " instance(s) (" + failed.get() + " invalid) in "
+				+ ((System.nanoTime() - startTime) / 1000000) + " ms.");
+	}
+
+
+	private void solve(int line, String instance, long instanceSeed) {
+
+		int dimension = -1;
+
+		try {
+			int[] numbers = parseInstance(instance);
+			dimension = numbers[0];
+
+			BlockworldPuzzleSolver solver = createSolver(numbers, instanceSeed);
+			SearchResult result = solver.solveResult();
+
+			if (result.isSolved()) {
+				solved.incrementAndGet();
+			}
+
+			writeLine(csv ? csvLine(line, result) : jsonLine(line, result));
+
+		} catch (RuntimeException | IOException e) {
+
+			failed.incrementAndGet();
+			writeError(line, dimension, e.getMessage() == null ? e.toString() : e.getMessage());
+		}
+	}
+
+
+	private static Heuristic parseHeuristic(String name) {
+
+		switch(name) {
+
+			case "manhattan": {
+				return Heuristic.MANHATTAN;
+			}
+			case "agent": {
+				return Heuristic.AGENT_DISTANCE;
+			}
+			case "conflict": {
+				return Heuristic.LINEAR_CONFLICT;
+			}
+			case "strongest": {
+				return Heuristic.STRONGEST;
+			}
+			default: {
+				throw new IllegalArgumentException("This heuristic is not recognized: " + name);
+			}
+		}
+	}
+
+
+	// The numbers of an instance line: the dimension, then (optionally) the agent and letter coordinates.
+	private static int[] parseInstance(String instance) {
+
+		String[] fields = instance.split("[\\s,]+");
+		int[] numbers = new int[fields.length];
+
+		for (int i = 0; i < fields.length; i++) {
+
+			try {
+				numbers[i] = Integer.parseInt(fields[i]);
+
+			} catch (NumberFormatException e) {
+
+				throw new IllegalArgumentException("Not a number: " + fields[i]);
+			}
+		}
+
+		if (numbers[0] < 1) {
+			throw new IllegalArgumentException("The dimension needs to be at least 1.");
+		}
+		if (numbers.length != 1 && numbers.length != 1 + 2 * numbers[0]) {
+			throw new IllegalArgumentException("A " + numbers[0] + "x" + numbers[0] + " instance needs the dimension only or "
+					+ (1 + 2 * numbers[0]) + " numbers (the dimension, the agent and every letter).");
+		}
+
+		return numbers;
+	}
+
+
+	private BlockworldPuzzleSolver createSolver(int[] numbers, long instanceSeed) throws IOException {
+
+		BlockworldPuzzleSolver solver = new BlockworldPuzzleSolver();
+		solver.setDimension(numbers[0]);
+		solver.setStrategy(strategy);
+		solver.setGraphSearch(graphSearch);
+		solver.setHeuristic(heuristic);
+		solver.setPatternDatabase(patternDatabase);
+		solver.setDistanceDatabase(distanceDatabase);
+		solver.setRandomMoves(randomMoves);
+		solver.setRandomSeed(instanceSeed);
+		solver.setMaxNodes(maxNodes);
+		solver.setMaxFringeSize(maxFringeSize);
+		solver.setTimeLimit(timeLimit);
+		solver.setMemoryLimit(memoryLimit);
+		solver.setSolutionCache(cache);
+
+		boolean heuristicSearch = strategy == 'A' || strategy == 'F' || strategy == 'M';
+		if (patternDatabase && heuristicSearch) {
+			solver.setLoadedPatternDatabase(loadPatternDatabase(numbers[0]));
+		}
+		if (((distanceDatabase && heuristicSearch) || strategy == 'L') && numbers[0] > 1) {
+			solver.setLoadedDistanceDatabase(loadDistanceDatabase(numbers[0]));
+		}
+
+		// Thousands of short searches would only register and unregister MBeans.
+		solver.setLiveMetrics(false);
+
+		// The standard output may hold the results, so the searches do not announce themselves on it.
+		solver.setQuiet(true);
+
+		if (numbers.length > 1) {
+
+			int[] letters = new int[numbers.length - 3];
+			System.arraycopy(numbers, 3, letters, 0, letters.length);
+
+			solver.setAllowCustomInitialState(true);
+			solver.setCustomInitialState(numbers[1], numbers[2], letters);
+		}
+
+		return solver;
+	}
+
+
+	// The databases are only loaded by the first instance of a grid size (two instances racing for it get the same database from load).
+	private PatternDatabase loadPatternDatabase(int d) throws IOException {
+
+		PatternDatabase database = patternDatabases.get(d);
+
+		if (database == null) {
+
+			database = PatternDatabase.load(d, PatternDatabase.DEFAULT_DIRECTORY);
+			patternDatabases.put(d, database);
+		}
+
+		return database;
+	}
+
+
+	private DistanceDatabase loadDistanceDatabase(int d) throws IOException {
+
+		DistanceDatabase database = distanceDatabases.get(d);
+
+		if (database == null) {
+
+			database = DistanceDatabase.load(d, DistanceDatabase.DEFAULT_DIRECTORY);
+			distanceDatabases.put(d, database);
+		}
+
+		return database;
+	}
+
+
+	private String jsonLine(int line, SearchResult result) {
+
+		StringBuilder json = new StringBuilder("{");
+		json.append("\"line\":").append(line);
+		json.append(",\"dimension\":").append(result.getDimension());
+		json.append(",\"strategy\":\"").append(result.getStrategy()).append('"');
+		json.append(",\"termination\":\"").append(result.getTermination()).append('"');
+		json.append(",\"depth\":").append(result.getSolutionDepth());
+		json.append(",\"distance\":").append(result.getDistanceToSolution());
+		json.append(",\"nodes\":").append(result.getNodesCreated());
+		json.append(",\"peak_nodes\":").append(result.getPeakNodes());
+		json.append(",\"duplicates\":").append(result.getDuplicatesPruned());
+		json.append(",\"wall_ms\":").append(result.getWallTimeNanos() / 1000000);
+		json.append(",\"cached\":").append(result.isCached());
+		if (moves) {
+			json.append(",\"moves\":\"").append(moveString(result)).append('"');
+		}
+		json.append('}');
+
+		return json.toString();
+	}
+
+
+	private String csvLine(int line, SearchResult result) {
+
+		return line + "," + result.getDimension() + "," + result.getStrategy() + "," + result.getTermination() + "," + result.getSolutionDepth()
+				+ "," + result.getDistanceToSolution() + "," + result.getNodesCreated() + "," + result.getPeakNodes()
+				+ "," + result.getDuplicatesPruned() + "," + (result.getWallTimeNanos() / 1000000) + "," + result.isCached() + "," + (moves ? moveString(result) : "") + ",";
+	}
+
+
+	// An instance which could not be solved (an invalid line, for instance).
+	private void writeError(int line, int dimension, String message) {
+
+		try {
+			if (csv) {
+				writeLine(line + "," + (dimension < 0 ? "" : dimension) + "," + strategy + ",ERROR,,,,,,,,,\"" + message.replace("\"", "\"\"") + "\"");
+			}
+			else {
+				writeLine("{\"line\":" + line + (dimension < 0 ? "" : ",\"dimension\":" + dimension) + ",\"strategy\":\"" + strategy
+						+ "\",\"termination\":\"ERROR\",\"error\":\"" + escapeJson(message) + "\"}");
+			}
+
+		} catch (IOException e) {
+
+			throw new UncheckedIOException("The results could not be written.", e);
+		}
+	}
+
+
+	// The moves of the solution (or of the closest state found) as a string of U, L, D and R.
+	private static String moveString(SearchResult result) {
+
+		char[] moves = new char[result.getMoveCount()];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = result.getMove(i);
+		}
+
+		return new String(moves);
+	}
+
+
+	private static String escapeJson(String text) {
+
+		StringBuilder escaped = new StringBuilder(text.length());
+
+		for (char c : text.toCharArray()) {
+
+			if (c == '"' || c == '\\') {
+				escaped.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				escaped.append(String.format("\\u%04x", (int) c));
+			}
+			else {
+				escaped.append(c);
+			}
+		}
+
+		return escaped.toString();
+	}
+
+
+	// Every line is flushed at once, so the results can be followed (tail -f) while the batch runs.
+	private void writeLine(String line) throws IOException {
+
+		synchronized (results) {
+
+			results.write(line);
+			results.write('\n');
+			results.flush();
+		}
+	}
+
+}
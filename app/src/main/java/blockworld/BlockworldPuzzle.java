@@ -0,0 +1,127 @@
+package blockworld;
+
+import javax.swing.SwingUtilities;
+
+/*
+ * Used to start the Blockworld Puzzle Application
+ */
+
+public class BlockworldPuzzle {
+
+	public static void main(String[] args) {
+		
+		
+		// Controller component.
+		// It can perform all its operations and functions in this main method without initializing the view.
+		// The view does not support the "verbose" and the "custom initial state" options, but they are available
+		// by using the controller directly here !!!
+		BlockworldPuzzleSolver controller = new BlockworldPuzzleSolver();
+		
+		SwingUtilities.invokeLater ( new Runnable () {
+			
+			public void run() {
+
+				// View component
+				BlockworldPuzzleView view = new BlockworldPuzzleView("Blockworld Tile Puzzle", controller);
+				view.initView();
+            }
+		});
+		
+		
+//		// The following are examples of how the Blockworld Puzzle Simulation can be customized for tests using just this main method
+//		// and the controller, without having to instantiate and use the view:
+//		
+//		// Setting the strategy to be used:
+//		// B = BFS
+//		// D = DFS
+//		// I = IDS
+//		// A = A* Heuristic
+//		// F = IDA* (Iterative Deepening A*, bounded by f = depth + Manhattan distance)
+//		// T = Bidirectional BFS (two-way: from the initial state and from all the solutions)
+//		// M = SMA* (Simplified Memory-Bounded A*, forgetting the worst leaves when the memory limit is reached)
+//		// L = Lookup (an optimal solution read from the exact distances of the grid, up to 5 x 5; built in "DistanceDatabases" on first use)
+//		controller.setStrategy('B');
+//		
+//		// Setting the Grid size (up to 32 x 32, whose 31 letters are A to Z and a to e)
+//		controller.setDimension(4);
+//		
+//		// Allowing random moves
+//		controller.setRandomMoves(true);
+//		
+//		// Making the random moves reproducible
+//		controller.setRandomSeed(42L);
+//		
+//		// Expanding each BFS depth layer in parallel (number of threads)
+//		controller.setParallelism(Runtime.getRuntime().availableProcessors());
+//		
+//		// Keeping the BFS frontier off the heap (256 MB at most) and spilling the rest to files in the "Frontier" folder
+//		controller.setSpillingFrontier(256L << 20, new java.io.File("Frontier"));
+//		
+//		// Keeping at most 100000 nodes in memory with SMA*
+//		controller.setMemoryLimit(100000);
+//		
+//		// Pruning the states reached before (graph search)
+//		controller.setGraphSearch(true);
+//		
+//		// Stopping a search after 10 million nodes, 5 million nodes in memory or 60 seconds (reporting the closest state found)
+//		controller.setMaxNodes(10000000);
+//		controller.setMaxFringeSize(5000000);
+//		controller.setTimeLimit(60000);
+//		
+//		// Using a binary heap instead of the f-value buckets as the A* fringe (for comparison)
+//		controller.setBinaryHeapFringe(true);
+//		
+//		// Using a stronger admissible heuristic with A* / IDA* / SMA* (see Heuristic)
+//		controller.setHeuristic(Heuristic.STRONGEST);
+//		
+//		// Using the pattern database of the grid as the A* / IDA* / SMA* heuristic (built in "PatternDatabases" on first use)
+//		controller.setPatternDatabase(true);
+//		
+//		// Using the exact distances of the grid as the A* / IDA* / SMA* heuristic (up to 5 x 5, built in "DistanceDatabases" on first use)
+//		controller.setDistanceDatabase(true);
+//		
+//		// Full solution display or "just moves" display
+//		controller.setSolutionDisplayType(true);
+//
+//		// Full Node information display
+//		controller.setVerbose(true);
+//
+//		// Writing every node to a binary trace instead (replayed as the verbose text by blockworld.SearchTraceReader)
+//		controller.setTraceFile(new java.io.File("search.trace"));
+//
+//		// Not registering the live metrics MBean of every search (watched with jconsole, JMC or jcmd)
+//		controller.setLiveMetrics(false);
+//
+//		// Reusing the results of the configurations solved before, in this run or an earlier one (kept in SolutionCache/)
+//		try {
+//			controller.setSolutionCache(new SolutionCache());
+//		} catch (java.io.IOException e) {
+//			e.printStackTrace();
+//		}
+//
+//		// Setting up a custom initial state
+//		controller.setAllowCustomInitialState(true);
+//		controller.setCustomInitialState(0,1,2,0,2,1,3,1);
+//		
+//		// Printing the first solution found + search analysis
+//		System.out.println(controller.solve());
+//		
+//		// Comparing the nodes created by A* (or the configured IDA* / SMA*) with every heuristic
+//		System.out.println(controller.compareHeuristics(Heuristic.MANHATTAN, Heuristic.AGENT_DISTANCE, Heuristic.LINEAR_CONFLICT, Heuristic.STRONGEST));
+//		
+//		// Streaming the report to a file instead (a full display of a deep solution is never built as one String)
+//		try (java.io.Writer out = new java.io.BufferedWriter(new java.io.FileWriter("solution.txt"))) {
+//			controller.solve(out);
+//		} catch (java.io.IOException e) {
+//			e.printStackTrace();
+//		}
+//		
+////		// Printing average search analysis for i tests (run on 4 threads at the same time)
+////		int i = 50;
+////		controller.setTestThreads(4);
+////		System.out.println(controller.multipleTestSolve(i));
+		
+	}
+
+}
+
@@ -0,0 +1,699 @@
+package blockworld;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+public class BlockworldPuzzleSolver {
+	
+	// will specify the strategy.
+	private char strategy;
+	
+	// will specify grid dimension (d x d)
+	private int dimension;
+	
+	
+	// Flags
+	
+	// if the algo will do random moves.
+	private boolean randomMoves;
+	
+	// if the solution is displayed in terms of moves or full states
+	private boolean fullDisplay;
+	
+	// allows usage of a custom initial state
+	private boolean customInitialState;
+	
+	// if the search will fully print all states it gets through or not
+	// if this is set to false, only solution will be displayed.
+	private boolean verbose;
+	
+	// if states reached before will be pruned (graph search) instead of being expanded again (tree search).
+	private boolean graphSearch;
+	
+	// if A* will keep its fringe in a binary heap instead of buckets of f-values (for comparison).
+	private boolean binaryHeapFringe;
+	
+	// if A* and IDA* will also use the pattern database of the grid as heuristic.
+	private boolean patternDatabase;
+	
+	// the heuristic of A*, IDA* and SMA*.
+	private Heuristic heuristic = Heuristic.MANHATTAN;
+	
+	// if A*, IDA* and SMA* will use the exact distances of the grid as heuristic (up to DistanceDatabase.MAX_DIMENSION).
+	private boolean distanceDatabase;
+	
+	// the databases of the grid size, loaded the first time a search needs them and then handed to every search of this solver
+	// (they can also be loaded once for several solvers, see BatchSolver).
+	private PatternDatabase loadedPatternDatabase;
+	private DistanceDatabase loadedDistanceDatabase;
+	
+	// the number of threads expanding each depth layer of BFS (1 for the sequential BFS).
+	private int parallelism = 1;
+	
+	// if set, BFS keeps its frontier off the heap (up to frontierMemory bytes) and spills the rest to files in this directory.
+	private File spillDirectory;
+	private long frontierMemory;
+	
+	// the maximum number of nodes SMA* keeps in memory.
+	private int memoryLimit = 1 << 20;
+	
+	// the number of test searches run at the same time by multipleTestSolve (each one keeps its own search tree in memory).
+	private int testThreads = Runtime.getRuntime().availableProcessors();
+	
+	// the seed of the random moves (null for a different order of moves every time).
+	private Long randomSeed;
+	
+	// the budgets of every search (0 for no limit): nodes created, nodes in memory and time spent (in milliseconds).
+	private long maxNodes;
+	private long maxFringeSize;
+	private long timeLimit;
+	
+	// if set, solve() writes the nodes its search goes through to this file as a binary trace (see SearchTraceReader).
+	private File traceFile;
+	
+	// if set, solve() returns the cached result of a configuration already solved (and caches the results of new ones).
+	private SolutionCache solutionCache;
+	
+	// if every search registers an MBean with its live metrics (nodes, nodes/sec, fringe size, depth, bound) while it runs.
+	private boolean liveMetrics = true;
+	
+	// if the searches will not announce themselves on the standard output.
+	private boolean quiet;
+	
+	// if set, the searches of this solver can be cancelled from another thread.
+	private CancellationToken cancellationToken;
+
+	// the searches running now (read by the view to show their progress).
+	private final Set<TreeSearch> runningSearches = ConcurrentHashMap.newKeySet();
+
+	// custom positions of letters (need to be of even length - X and Y coordinates)
+	private int[] customPositions;
+	
+	// agent custom set row position
+	private int customAgentRowPos;
+	
+	// agent custom set column position.
+	private int customAgentColPos;
+	
+	
+	public BlockworldPuzzleSolver() {
+		
+		this.dimension = 4;
+		this.strategy = 'B';
+		this.customInitialState = false;
+		this.randomMoves = false;
+		this.fullDisplay = false;
+		this.verbose = false;
+		this.graphSearch = false;
+	}
+	
+	// a completely customizable constructor
+	public BlockworldPuzzleSolver(int dimension, char strategy, boolean customInitialState, boolean randomMoves, boolean stateDisplay, boolean verbose) {
+		
+		this.dimension = dimension;
+		this.strategy = strategy;
+		this.customInitialState = customInitialState;
+		this.randomMoves = randomMoves;
+		this.fullDisplay = stateDisplay;
+		this.verbose = verbose;
+	}
+	
+	// A solver with the same configuration (the databases loaded and the solution cache are shared, the running searches are not),
+	// so that simulations run at the same time (see BlockworldPuzzleView) each get their own cancellation token and live metrics.
+	public BlockworldPuzzleSolver copy() {
+		
+		BlockworldPuzzleSolver copy = new BlockworldPuzzleSolver(dimension, strategy, customInitialState, randomMoves, fullDisplay, verbose);
+		
+		copy.graphSearch = graphSearch;
+		copy.binaryHeapFringe = binaryHeapFringe;
+		copy.patternDatabase = patternDatabase;
+		copy.heuristic = heuristic;
+		copy.distanceDatabase = distanceDatabase;
+		copy.loadedPatternDatabase = loadedPatternDatabase;
+		copy.loadedDistanceDatabase = loadedDistanceDatabase;
+		copy.parallelism = parallelism;
+		copy.spillDirectory = spillDirectory;
+		copy.frontierMemory = frontierMemory;
+		copy.memoryLimit = memoryLimit;
+		copy.testThreads = testThreads;
+		copy.randomSeed = randomSeed;
+		copy.maxNodes = maxNodes;
+		copy.maxFringeSize = maxFringeSize;
+		copy.timeLimit = timeLimit;
+		copy.traceFile = traceFile;
+		copy.solutionCache = solutionCache;
+		copy.liveMetrics = liveMetrics;
+		copy.quiet = quiet;
+		copy.cancellationToken = cancellationToken;
+		copy.customPositions = customPositions;
+		copy.customAgentRowPos = customAgentRowPos;
+		copy.customAgentColPos = customAgentColPos;
+		
+		return copy;
+	}
+
+	
+	// Grids of 1 x 1 up to SearchState.MAX_DIMENSION x SearchState.MAX_DIMENSION (32 x 32, with 31 letters) are supported.
+	public void setGridSize(int d) {
+		
+		setDimension(d);
+	}
+	
+	// One of the strategies of TreeSearch: B, D, I, A, F, T, M or L.
+	public void setStrategy(char strategy) {
+		
+		if (!TreeSearch.isStrategy(strategy)) {
+			
+			throw new IllegalArgumentException("This strategy is not recognized: " + strategy);
+		}
+		
+		this.strategy = strategy;
+	}
+	
+	public void setSolutionDisplayType(boolean fullDisplay) {
+		
+		this.fullDisplay = fullDisplay;
+	}
+	
+	public void setRandomMoves(boolean randomMoves) {
+		
+		this.randomMoves = randomMoves;
+	}
+	
+	public void setAllowCustomInitialState(boolean customInitialState) {
+		this.customInitialState = customInitialState;
+	}
+	
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+	
+	public void setGraphSearch(boolean graphSearch) {
+		this.graphSearch = graphSearch;
+	}
+	
+	public boolean isGraphSearch() {
+		return graphSearch;
+	}
+	
+	public void setBinaryHeapFringe(boolean binaryHeapFringe) {
+		this.binaryHeapFringe = binaryHeapFringe;
+	}
+	
+	public void setParallelism(int parallelism) {
+		
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("The parallelism needs to be at least 1.");
+		}
+		this.parallelism = parallelism;
+	}
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	// BFS is then bounded by the disk rather than the heap (null for the in-heap fringe).
+	public void setSpillingFrontier(long memoryThreshold, File spillDirectory) {
+		this.frontierMemory = memoryThreshold;
+		this.spillDirectory = spillDirectory;
+	}
+	
+	public void setMemoryLimit(int memoryLimit) {
+		
+		if (memoryLimit < 2) {
+			throw new IllegalArgumentException("The memory limit needs to be at least 2 nodes.");
+		}
+		this.memoryLimit = memoryLimit;
+	}
+	
+	public int getMemoryLimit() {
+		return memoryLimit;
+	}
+	
+	public void setTestThreads(int testThreads) {
+		
+		if (testThreads < 1) {
+			throw new IllegalArgumentException("The number of test threads needs to be at least 1.");
+		}
+		this.testThreads = testThreads;
+	}
+	
+	public int getTestThreads() {
+		return testThreads;
+	}
+	
+	// With a seed, the random moves of every test search are reproducible (whatever the number of test threads).
+	public void setRandomSeed(Long randomSeed) {
+		this.randomSeed = randomSeed;
+	}
+	
+	// A search which uses up a budget stops and reports the closest state found so far.
+	public void setMaxNodes(long maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+	
+	public void setMaxFringeSize(long maxFringeSize) {
+		this.maxFringeSize = maxFringeSize;
+	}
+	
+	public void setTimeLimit(long timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+	
+	// The trace is much cheaper than the verbose display, so it can be kept on for real searches (null for no trace).
+	// The test searches are never traced.
+	public void setTraceFile(File traceFile) {
+		this.traceFile = traceFile;
+	}
+	
+	// The random, verbose and traced searches are never cached (neither are the test searches), since their result is
+	// either not reproducible or not the point of running them. Only the solved and unsolvable instances are cached:
+	// a search stopped by a budget could still be solved with a larger one.
+	public void setSolutionCache(SolutionCache solutionCache) {
+		this.solutionCache = solutionCache;
+	}
+	
+	// The metrics of the running searches are MBeans named blockworld:type=Search,name=<strategy>-<number>.
+	public void setLiveMetrics(boolean liveMetrics) {
+		this.liveMetrics = liveMetrics;
+	}
+	
+	public void setQuiet(boolean quiet) {
+		this.quiet = quiet;
+	}
+	
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		this.cancellationToken = cancellationToken;
+	}
+	
+	public CancellationToken getCancellationToken() {
+		return cancellationToken;
+	}
+	
+	// The pattern database of a grid size is built (and persisted) the first time it is needed.
+	public void setPatternDatabase(boolean patternDatabase) {
+		this.patternDatabase = patternDatabase;
+	}
+	
+	// Any admissible heuristic (see Heuristic for the ones available) keeps A*, IDA* and SMA* optimal.
+	public void setHeuristic(Heuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+	
+	public Heuristic getHeuristic() {
+		return heuristic;
+	}
+	
+	// The distance database of a grid size is built (and persisted) the first time it is needed; the lookup strategy (L) always uses it.
+	public void setDistanceDatabase(boolean distanceDatabase) {
+		this.distanceDatabase = distanceDatabase;
+	}
+	
+	// The databases already loaded (by the caller, or by another solver), used instead of loading them again if they match the grid size.
+	public void setLoadedPatternDatabase(PatternDatabase loadedPatternDatabase) {
+		this.loadedPatternDatabase = loadedPatternDatabase;
+	}
+	
+	public void setLoadedDistanceDatabase(DistanceDatabase loadedDistanceDatabase) {
+		this.loadedDistanceDatabase = loadedDistanceDatabase;
+	}
+	
+	
+	public int getDimension() {
+		return dimension;
+	}
+
+	public void setDimension(int dimension) {
+		
+		if (dimension < 1 || dimension > SearchState.MAX_DIMENSION) {
+			
+			throw new IllegalArgumentException("The grid dimension needs to be between 1 and " + SearchState.MAX_DIMENSION + ".");
+		}
+		
+		this.dimension = dimension;
+	}
+
+	public char getStrategy() {
+		return strategy;
+	}
+	
+	public String getStrategyFullName() {
+		
+		switch(strategy) {
+			case 'B': return "Breadth First Search";
+			case 'D': return "Depth First Search";
+			case 'I': return "Iterative Deepening Search";
+			case 'A': return "A* Heuristic Search";
+			case 'F': return "Iterative Deepening A* Search";
+			case 'T': return "Bidirectional Breadth First Search";
+			case 'M': return "Simplified Memory-Bounded A* Search";
+			case 'L': return "Distance Database Lookup";
+		}
+		
+		return "Error: Search method unrecognized!";
+	}
+
+
+	public boolean isRandomMoves() {
+		return randomMoves;
+	}
+	
+	public boolean isFullDisplay() {
+		return fullDisplay;
+	}
+
+	
+	public void setCustomInitialState(int agentRowPos, int agentColPos, int... customLetterPositions) {
+
+		this.customAgentRowPos = agentRowPos;
+		this.customAgentColPos = agentColPos;
+		this.customPositions = customLetterPositions;
+	}
+
+	// The method employed by the Controller to solve the puzzle with the given configuration.
+	// @param : If true, a custom initial state will be used; If false, the original initial state is used.
+	// If the search space is too big (especially in BFS when all nodes are kept in the fringe), 
+	// this method might make the Heap run out of memory
+	public String solve() throws OutOfMemoryError {
+		
+		return solveResult().toReport(fullDisplay);
+	}
+	
+	// As above, but the report is written to the output while it is rendered, so the full display of a deep solution
+	// is never built as one String (the view pages it into its report area, a Writer can stream it to a file).
+	public void solve(Appendable out) throws IOException, OutOfMemoryError {
+		
+		solveResult().writeReport(out, fullDisplay);
+	}
+	
+	// Runs the configured search once, returning its result without rendering any report (the search space is discarded).
+	public SearchResult solveResult() throws OutOfMemoryError {
+		
+		TreeSearch treeSearch = createTreeSearch();
+		if (randomSeed != null) {
+			treeSearch.setRandom(new SplittableRandom(randomSeed));
+		}
+		treeSearch.setTraceFile(traceFile);
+		
+		SearchState initialState = createInitialState();
+		
+		boolean cached = solutionCache != null && !randomMoves && !verbose && traceFile == null;
+		String settings = cached ? cacheSettings() : null;
+		
+		try {
+			if (cached) {
+				
+				SearchResult result = solutionCache.get(initialState, strategy, settings);
+				if (result != null) {
+					return result;
+				}
+			}
+			
+			SearchResult result;
+			runningSearches.add(treeSearch);
+			try {
+				result = treeSearch.solve(initialState, randomMoves, verbose);
+			}
+			finally {
+				runningSearches.remove(treeSearch);
+			}
+			
+			if (cached && (result.isSolved() || result.getTermination() == SearchResult.Termination.NO_SOLUTION)) {
+				solutionCache.put(initialState, settings, result);
+			}
+			
+			return result;
+			
+		} catch (IOException e) {
+			throw new UncheckedIOException("The solution cache could not be used.", e);
+		}
+	}
+	
+	// Solves the puzzle once with every heuristic (with the configured strategy if it uses one, or else with A*),
+	// reporting the nodes each search created. The heuristic set on the solver is left unchanged.
+	public String compareHeuristics(Heuristic... heuristics) throws OutOfMemoryError {
+		
+		if (heuristics.length == 0) {
+			
+			throw new IllegalArgumentException("At least one heuristic needs to be compared.");
+		}
+		
+		char configuredStrategy = strategy;
+		Heuristic configuredHeuristic = heuristic;
+		
+		if (strategy != 'A' && strategy != 'F' && strategy != 'M') {
+			strategy = 'A';
+		}
+		
+		SearchState initialState = createInitialState();
+		List<SearchResult> results = new ArrayList<SearchResult>();
+		List<String> descriptions = new ArrayList<String>();
+		
+		try {
+			for (Heuristic compared : heuristics) {
+				
+				heuristic = compared;
+				
+				TreeSearch treeSearch = createTreeSearch();
+				if (randomSeed != null) {
+					treeSearch.setRandom(new SplittableRandom(randomSeed));
+				}
+				
+				runningSearches.add(treeSearch);
+				try {
+					results.add(treeSearch.solve(initialState, randomMoves, false));
+				}
+				finally {
+					runningSearches.remove(treeSearch);
+				}
+				descriptions.add(compared.getDescription());
+			}
+		}
+		finally {
+			strategy = configuredStrategy;
+			heuristic = configuredHeuristic;
+		}
+		
+		return TreeSearch.heuristicComparison(results, descriptions);
+	}
+	
+	// The method employed by the Controller to test multiple times a search method with the given configuration.
+	// The searches are run on a pool of testThreads threads.
+	// @param : If true, a custom initial state will be used; If false, the original initial state is used.
+	// If the search space is too big (especially in BFS when all nodes are kept in the fringe), 
+	// this method might make the Heap run out of memory
+	public String multipleTestSolve(int times) throws OutOfMemoryError  {
+		
+		return multipleTestSolve(times, (Consumer<SearchResult>) null);
+	}
+	
+	// As above, also passing the result of every search to onResult as soon as it is known (see below).
+	public String multipleTestSolve(int times, Consumer<SearchResult> onResult) throws OutOfMemoryError  {
+		
+		ExecutorService executor = Executors.newFixedThreadPool(testThreads);
+		
+		try {
+			return multipleTestSolve(times, executor, testThreads, onResult);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	// Runs the test searches as independent tasks of the given executor (shared by the caller, who also shuts it down).
+	// Every search has its own TreeSearch and its own random generator, split in order from the seeded one,
+	// so the results only depend on the seed and not on how the searches are scheduled.
+	// @param threads : the number of threads of the executor (only reported in the analysis)
+	public String multipleTestSolve(int times, ExecutorService executor, int threads) throws OutOfMemoryError  {
+		
+		return multipleTestSolve(times, executor, threads, null);
+	}
+	
+	// As above, also passing the result of every search to onResult (in the order the searches were submitted) as soon as it is known,
+	// on the calling thread (null for none).
+	public String multipleTestSolve(int times, ExecutorService executor, int threads, Consumer<SearchResult> onResult) throws OutOfMemoryError  {
+		
+		SearchState initialState = createInitialState();
+		SplittableRandom seeds = (randomSeed == null) ? new SplittableRandom() : new SplittableRandom(randomSeed);
+		
+		if (!quiet) {
+			System.out.println("Running (" + strategy + " Search) tests " + times + " time(s) on " + threads + " thread(s):\n\n");
+		}
+		
+		long startTime = System.nanoTime();
+		
+		List<Future<SearchResult>> runs = new ArrayList<Future<SearchResult>>(times);
+		for (int i = 0; i < times; i++) {
+			
+			TreeSearch treeSearch = createTreeSearch();
+			treeSearch.setRandom(seeds.split());
+			
+			// The initial state is only read by the searches, so it is shared by all of them.
+			runs.add(executor.submit(() -> {
+				
+				runningSearches.add(treeSearch);
+				try {
+					return treeSearch.solve(initialState, randomMoves, false);
+				}
+				finally {
+					runningSearches.remove(treeSearch);
+				}
+			}));
+		}
+		
+		List<SearchResult> results = new ArrayList<SearchResult>(times);
+		
+		try {
+			for (Future<SearchResult> run : runs) {
+				
+				SearchResult result = run.get();
+				results.add(result);
+				
+				if (onResult != null) {
+					onResult.accept(result);
+				}
+			}
+		} catch (InterruptedException e) {
+			
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The test searches were interrupted.", e);
+			
+		} catch (ExecutionException e) {
+			
+			// OutOfMemoryError (as any other failure of a search) is passed on to the caller.
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+			
+		} finally {
+			
+			for (Future<SearchResult> run : runs) {
+				run.cancel(true);
+			}
+		}
+		
+		return TreeSearch.multipleSearchAnalysis(results, threads, System.nanoTime() - startTime);
+		
+	}
+	
+	// The live metrics of the searches of this solver running now (they can be read from any thread, without slowing the searches down).
+	public List<SearchMetrics> getRunningMetrics() {
+		
+		List<SearchMetrics> metrics = new ArrayList<SearchMetrics>();
+		
+		for (TreeSearch treeSearch : runningSearches) {
+			
+			SearchMetrics searchMetrics = treeSearch.getMetrics();
+			if (searchMetrics != null) {
+				metrics.add(searchMetrics);
+			}
+		}
+		
+		return metrics;
+	}
+	
+	// A TreeSearch with the configured strategy and options.
+	private TreeSearch createTreeSearch() {
+		
+		TreeSearch treeSearch = new TreeSearch(strategy);
+		treeSearch.setGraphSearch(graphSearch);
+		treeSearch.setBinaryHeapFringe(binaryHeapFringe);
+		treeSearch.setParallelism(parallelism);
+		treeSearch.setMemoryLimit(memoryLimit);
+		treeSearch.setSpillingFrontier(frontierMemory, spillDirectory);
+		treeSearch.setMaxNodes(maxNodes);
+		treeSearch.setMaxFringeSize(maxFringeSize);
+		treeSearch.setTimeLimit(timeLimit);
+		treeSearch.setCancellationToken(cancellationToken);
+		treeSearch.setLiveMetrics(liveMetrics);
+		treeSearch.setQuiet(quiet);
+		treeSearch.setHeuristic(heuristic);
+		setUpHeuristic(treeSearch);
+		
+		return treeSearch;
+	}
+	
+	// The options which may change the result of the search (the moves found or the statistics), as part of the cache key.
+	private String cacheSettings() {
+		
+		boolean heuristic = strategy == 'A' || strategy == 'F' || strategy == 'M';
+		
+		return "graph=" + graphSearch + ",heuristic=" + (heuristic ? this.heuristic.getDescription() + " v" + this.heuristic.getVersion() : "none") + ",pdb=" + (patternDatabase && heuristic) + ",exact=" + (distanceDatabase && heuristic) + ",heap=" + binaryHeapFringe + ",parallelism=" + parallelism
+				+ ",memory=" + memoryLimit + ",spill=" + (spillDirectory != null ? frontierMemory : 0);
+	}
+	
+	private SearchState createInitialState() {
+		
+		if (!customInitialState) {
+			return new SearchState(dimension);
+		}
+		
+		return new SearchState(dimension, customAgentRowPos, customAgentColPos, customPositions);
+	}
+	
+	// The lookup (L) and the exact heuristic need the distance database, which only covers the grids up to DistanceDatabase.MAX_DIMENSION:
+	// the grid size and the strategy are set separately, so they are checked together before a search (see BlockworldPuzzleView).
+	public void checkGridSize() {
+		
+		boolean heuristic = strategy == 'A' || strategy == 'F' || strategy == 'M';
+		
+		if (((distanceDatabase && heuristic) || strategy == 'L') && dimension > DistanceDatabase.MAX_DIMENSION) {
+			
+			throw new IllegalStateException("The " + (strategy == 'L' ? getStrategyFullName() : "exact heuristic") + " needs the distance database,"
+					+ " which only covers the grids up to " + DistanceDatabase.MAX_DIMENSION + " x " + DistanceDatabase.MAX_DIMENSION 
+					+ " (not " + dimension + " x " + dimension + ").");
+		}
+	}
+	
+	// Plugs the pattern database or the distance database into the heuristic searches, if requested (and the distance database into the lookup).
+	private void setUpHeuristic(TreeSearch treeSearch) {
+		
+		checkGridSize();
+		
+		boolean heuristic = strategy == 'A' || strategy == 'F' || strategy == 'M';
+		
+		if (patternDatabase && heuristic) {
+			
+			if (loadedPatternDatabase == null || loadedPatternDatabase.getDimension() != dimension) {
+				
+				try {
+					loadedPatternDatabase = PatternDatabase.load(dimension, PatternDatabase.DEFAULT_DIRECTORY);
+				} catch (IOException e) {
+					throw new UncheckedIOException("The pattern database could not be loaded.", e);
+				}
+			}
+			
+			treeSearch.setPatternDatabase(loadedPatternDatabase);
+		}
+		
+		// A 1 x 1 grid is always solved, so it has no database (and the lookup needs none).
+		if (((distanceDatabase && heuristic) || strategy == 'L') && dimension > 1) {
+			
+			if (loadedDistanceDatabase == null || loadedDistanceDatabase.getDimension() != dimension) {
+				
+				try {
+					loadedDistanceDatabase = DistanceDatabase.load(dimension, DistanceDatabase.DEFAULT_DIRECTORY);
+				} catch (IOException e) {
+					throw new UncheckedIOException("The distance database could not be loaded.", e);
+				}
+			}
+			
+			treeSearch.setDistanceDatabase(loadedDistanceDatabase);
+		}
+	}
+}
@@ -1,6 +1,16 @@
+package blockworld;
+
 import java.awt.BorderLayout;
 
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
 import javax.swing.*;
 import javax.swing.UIManager.LookAndFeelInfo;
 import javax.swing.border.EmptyBorder;
@@ -20,10 +30,20 @@ public class BlockworldPuzzleView extends JFrame {
 	
 	private final static Font BUTTONS_FONT = new Font("Courier", Font.BOLD, 18);
 	
+	// How often the progress of a running simulation is shown (in milliseconds).
+	private final static int PROGRESS_INTERVAL = 250;
+	
+	// The reports are appended to the text area in pages of this many characters.
+	private final static int REPORT_CHUNK = 16384;
+	
+	// The strategy of each entry in the "Search Method" list (in the same order).
+	private final static char[] STRATEGIES = {'B', 'D', 'I', 'A', 'F', 'T', 'M', 'L'};
+	
 	private BlockworldPuzzleSolver solver;
 	private int gridSelected;
 	private int methodSelected;
 	private boolean randomMoves;
+	private boolean graphSearch;
 	private boolean displayType;
 	private int noOfTests;
 
@@ -35,17 +55,18 @@ public class BlockworldPuzzleView extends JFrame {
 		this.solver = solver;
 		this.gridSelected = solver.getDimension();
 		
-		switch(solver.getStrategy()) {
-			case 'B': {methodSelected = 0; break;}
-			case 'D': {methodSelected = 1; break;}
-			case 'I': {methodSelected = 2; break;}
-			case 'A': {methodSelected = 3; break;}
+		for (int i = 0; i < STRATEGIES.length; i++) {
+			if (STRATEGIES[i] == solver.getStrategy()) {
+				methodSelected = i;
+			}
 		}
 		
 		this.displayType = solver.isFullDisplay();
 		
 		this.randomMoves = solver.isRandomMoves();
 		
+		this.graphSearch = solver.isGraphSearch();
+		
 		// By default, we are interested in seeing a single solution.
 		this.noOfTests = 1;
 		
@@ -99,6 +120,15 @@ public class BlockworldPuzzleView extends JFrame {
 		startButton.setFont(BUTTONS_FONT);
 		startButton.addActionListener(e -> {
 			
+			// A grid too large for the strategy (the lookup only goes up to 5 x 5) is reported before the simulation starts.
+			try {
+				solver.checkGridSize();
+			} catch (IllegalStateException exception) {
+				
+				JOptionPane.showMessageDialog(this, exception.getMessage(), "Grid too large", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			
 			JDialog applicationDisplay = new JDialog(this, "Blockworld Search Simulation");
 			applicationDisplay.setSize(new Dimension(800,600));
 			applicationDisplay.setResizable(false);
@@ -117,53 +147,67 @@ public class BlockworldPuzzleView extends JFrame {
 			report.append("Grid is of size : " + gridSelected + " x " + gridSelected + "\n");
 			report.append("Search method used : " + solver.getStrategyFullName() + "\n");
 			report.append("Random moves : " + (randomMoves? "Yes":"No") + "\n");
+			report.append("Graph search : " + (graphSearch? "Yes":"No") + "\n");
 			
 			if (noOfTests == 1) {
 				report.append("Solution display type : " + (displayType? "Full Display":"Only Moves") +"\n\n");			
 				report.append("Relax! The solution is on its way to you!\n");
 			}
 			else {
-				report.append("Number of Test Searches to be effectuated: " + noOfTests + "\n\n");
+				report.append("Number of Test Searches to be effectuated: " + noOfTests + "\n");
+				report.append("Test Searches run at the same time: " + Math.min(noOfTests, solver.getTestThreads()) + "\n\n");
 				report.append("Relax! The tests will finish soon!\n");
 			}
 		    report.append("Wait a couple of minutes and enjoy a Cookie!\n");
 			report.append("Searching...\n\n");
 			
 			JScrollPane reportPane = new JScrollPane(report);
-			reportPane.setPreferredSize(new Dimension(750,560));
+			reportPane.setPreferredSize(new Dimension(750,520));
 			
 			panelContent.add(reportPane);
 			
+			// The progress of the search and the button stopping it.
+			JLabel progress = new JLabel("Searching...");
+			progress.setForeground(Color.CYAN);
+			progress.setFont(new Font("Courier New", Font.BOLD, 13));
+			
+			JButton cancelButton = new JButton("Cancel");
+			cancelButton.setForeground(DARK_BLUE);
+			
+			JPanel progressPanel = new JPanel(new BorderLayout(10, 0));
+			progressPanel.setBackground(Color.BLACK);
+			progressPanel.setPreferredSize(new Dimension(750,30));
+			progressPanel.add(progress, BorderLayout.CENTER);
+			progressPanel.add(cancelButton, BorderLayout.EAST);
+			
+			panelContent.add(progressPanel);
+			
 			applicationDisplay.setVisible(true);
 			
+			// Every simulation runs on its own copy of the solver, with its own token: Cancel (or closing the window) only stops
+			// the searches of this one, and its progress only shows them, while other simulations may still be running.
+			// A cancelled search still reports the closest state it found.
+			CancellationToken cancellation = new CancellationToken();
+			BlockworldPuzzleSolver simulation = solver.copy();
+			simulation.setCancellationToken(cancellation);
 			
-			new Thread(new Runnable() {
-
+			cancelButton.addActionListener(event -> {
+				
+				cancellation.cancel();
+				cancelButton.setEnabled(false);
+				progress.setText("Cancelling...");
+			});
+			
+			applicationDisplay.addWindowListener(new WindowAdapter() {
+				
 				@Override
-				public void run() {
+				public void windowClosed(WindowEvent event) {
 					
-					try {
-						if (noOfTests == 1) {
-							report.append(solver.solve());
-						}
-						else {
-							report.append(solver.multipleTestSolve(noOfTests));
-						}
-					} catch (OutOfMemoryError error) {
-						
-						JOptionPane optionPane = new JOptionPane("FATAL !!!\nThe Application ran out of memory and has to be force closed!", JOptionPane.ERROR_MESSAGE);    
-						JDialog dialog = optionPane.createDialog("Out of Memory Error");
-						dialog.setAlwaysOnTop(true);
-						dialog.setVisible(true);
-						
-						System.exit(ERROR);
-						
-						
-					}
-
+					cancellation.cancel();
 				}
-				
-			}).start();
+			});
+			
+			new SearchWorker(simulation, report, progress, cancelButton, noOfTests).execute();
 			
 			applicationDisplay.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
 
@@ -180,15 +224,15 @@ public class BlockworldPuzzleView extends JFrame {
 			dlcr.setHorizontalAlignment(DefaultListCellRenderer.CENTER);
 			
 			JPanel panel = new JPanel();
-			panel.setPreferredSize(new Dimension(400,200));
+			panel.setPreferredSize(new Dimension(400,240));
 			panel.setBorder(new EmptyBorder(20,10,20,10));
-			panel.setLayout(new GridLayout(5,2));
+			panel.setLayout(new GridLayout(6,2));
 			
 			
 			panel.add(new JLabel("Grid (d x d)"));
  
 			JComboBox<Integer> gridSize = new JComboBox<Integer>();
-			for (int i = 1; i <= 10; i++) {
+			for (int i = 1; i <= SearchState.MAX_DIMENSION; i++) {
 				gridSize.addItem(i);
 			}
 			gridSize.setSelectedItem(gridSelected);
@@ -204,6 +248,10 @@ public class BlockworldPuzzleView extends JFrame {
 			searchMeth.addItem("Depth First Search");
 			searchMeth.addItem("Iterative Deepening");
 			searchMeth.addItem("A* heuristic search");
+			searchMeth.addItem("Iterative Deepening A*");
+			searchMeth.addItem("Bidirectional BFS");
+			searchMeth.addItem("Memory-Bounded A* (SMA*)");
+			searchMeth.addItem("Distance Database Lookup");
 			searchMeth.setSelectedIndex(methodSelected);
 			searchMeth.setRenderer(dlcr);
 
@@ -222,6 +270,17 @@ public class BlockworldPuzzleView extends JFrame {
 			panel.add(randomMovesChoice);
 			
 			
+			panel.add(new JLabel("Graph Search (Prune Duplicates)"));
+			
+			JComboBox<String> graphSearchChoice = new JComboBox<String>();
+			graphSearchChoice.addItem("No");
+			graphSearchChoice.addItem("Yes");
+			graphSearchChoice.setSelectedIndex(graphSearch? 1 : 0);
+			graphSearchChoice.setRenderer(dlcr);
+			
+			panel.add(graphSearchChoice);
+			
+			
 			
 			panel.add(new JLabel("Solution Display (Single Search Only)"));
 			
@@ -265,13 +324,16 @@ public class BlockworldPuzzleView extends JFrame {
 					solver.setGridSize(Integer.parseInt(gridSize.getSelectedItem().toString()));
 					gridSelected = gridSize.getSelectedIndex() + 1;
 					
-					// We will identify the search method selected by using the first character
-					solver.setStrategy(searchMeth.getSelectedItem().toString().charAt(0));
+					// We will identify the search method selected by its position in the list
+					solver.setStrategy(STRATEGIES[searchMeth.getSelectedIndex()]);
 					methodSelected = searchMeth.getSelectedIndex();
 					
 					solver.setRandomMoves(randomMovesChoice.getSelectedIndex() == 0 ? false : true);
 					randomMoves = solver.isRandomMoves();
 					
+					solver.setGraphSearch(graphSearchChoice.getSelectedIndex() == 0 ? false : true);
+					graphSearch = solver.isGraphSearch();
+					
 					solver.setSolutionDisplayType(fullDisplayChoice.getSelectedIndex() == 0 ? false : true);
 					displayType = solver.isFullDisplay();
 					
@@ -316,4 +378,171 @@ public class BlockworldPuzzleView extends JFrame {
 		
 		setVisible(true);
 	}
+	
+	
+	// Runs a simulation off the event dispatch thread, so the window stays responsive during long searches.
+	// The searches never wait for the UI: the report is published in pages (and, for multiple tests, a line per finished search)
+	// which are appended by process(), while a timer reads the live metrics of the running searches a few times per second.
+	private class SearchWorker extends SwingWorker<Void, String> {
+		
+		// The copy of the solver running this simulation only.
+		private final BlockworldPuzzleSolver simulation;
+		
+		private final JTextArea report;
+		private final JLabel progress;
+		private final JButton cancelButton;
+		private final int tests;
+		
+		private final Timer timer;
+		private final long startTime = System.nanoTime();
+		
+		// The number of test searches finished (only written by the worker thread).
+		private volatile int finished;
+		
+		private SearchWorker(BlockworldPuzzleSolver simulation, JTextArea report, JLabel progress, JButton cancelButton, int tests) {
+			
+			this.simulation = simulation;
+			this.report = report;
+			this.progress = progress;
+			this.cancelButton = cancelButton;
+			this.tests = tests;
+			
+			this.timer = new Timer(PROGRESS_INTERVAL, e -> showProgress());
+			this.timer.start();
+		}
+		
+		@Override
+		protected Void doInBackground() throws IOException {
+			
+			// The report is written into pages which are appended to the report area as they fill up.
+			try (Writer pages = new ReportPages()) {
+				
+				if (tests == 1) {
+					simulation.solve(pages);
+				}
+				else {
+					publish("Finished test searches:\n");
+					
+					String analysis = simulation.multipleTestSolve(tests, result -> {
+						
+						finished++;
+						publish("Search " + finished + ": " + (result.isSolved() ? "solution of depth " + result.getSolutionDepth() 
+								: "stopped, " + result.getTermination().getDescription()) + " (" + result.getNodesCreated() + " nodes, " 
+								+ (result.getWallTimeNanos() / 1000000) + " ms" + (result.isCached() ? ", cached" : "") + ")\n");
+					});
+					
+					pages.write("\n");
+					pages.write(analysis);
+				}
+			}
+			
+			return null;
+		}
+		
+		// Collects what is written into pages of REPORT_CHUNK characters, each one published as soon as it is full,
+		// so a long report (the full display of a deep solution, for instance) is appended a page at a time 
+		// and the window is never blocked for long.
+		private class ReportPages extends Writer {
+			
+			private final StringBuilder page = new StringBuilder(REPORT_CHUNK);
+			
+			@Override
+			public void write(char[] buffer, int offset, int length) {
+				
+				while (length > 0) {
+					
+					int taken = Math.min(length, REPORT_CHUNK - page.length());
+					page.append(buffer, offset, taken);
+					offset += taken;
+					length -= taken;
+					
+					if (page.length() == REPORT_CHUNK) {
+						flush();
+					}
+				}
+			}
+			
+			@Override
+			public void flush() {
+				
+				if (page.length() > 0) {
+					
+					publish(page.toString());
+					page.setLength(0);
+				}
+			}
+			
+			@Override
+			public void close() {
+				
+				flush();
+			}
+		}
+		
+		@Override
+		protected void process(List<String> chunks) {
+			
+			for (String chunk : chunks) {
+				report.append(chunk);
+			}
+		}
+		
+		// The progress of the search of this simulation (or, for multiple tests, the totals of its test searches running now).
+		private void showProgress() {
+			
+			// the search is being cancelled (the label says so).
+			if (!cancelButton.isEnabled()) {
+				return;
+			}
+			
+			long nodes = 0;
+			long fringe = 0;
+			long rate = 0;
+			int depth = 0;
+			
+			List<SearchMetrics> running = simulation.getRunningMetrics();
+			
+			for (SearchMetrics metrics : running) {
+				
+				nodes += metrics.getNodesCreated();
+				fringe += metrics.getFringeSize();
+				rate += metrics.getNodesPerSecond();
+				depth = Math.max(depth, metrics.getDepth());
+			}
+			
+			progress.setText((tests > 1 ? "Done: " + finished + "/" + tests + " | Running: " + running.size() + " | " : "") 
+					+ String.format("%.1f s | Nodes: %,d | Fringe: %,d | Depth: %d | %,d nodes/s", 
+							(System.nanoTime() - startTime) / 1e9, nodes, fringe, depth, rate));
+		}
+		
+		@Override
+		protected void done() {
+			
+			timer.stop();
+			cancelButton.setEnabled(false);
+			progress.setText(String.format("Finished in %.1f s", (System.nanoTime() - startTime) / 1e9));
+			
+			try {
+				get();
+				
+			} catch (InterruptedException | CancellationException e) {
+				
+				// the worker itself is never cancelled (the searches are, through their token).
+				
+			} catch (ExecutionException e) {
+				
+				if (e.getCause() instanceof OutOfMemoryError) {
+					
+					JOptionPane optionPane = new JOptionPane("FATAL !!!\nThe Application ran out of memory and has to be force closed!", JOptionPane.ERROR_MESSAGE);    
+					JDialog dialog = optionPane.createDialog("Out of Memory Error");
+					dialog.setAlwaysOnTop(true);
+					dialog.setVisible(true);
+					
+					System.exit(ERROR);
+				}
+				
+				report.append("\nThe simulation failed: " + e.getCause() + "\n");
+			}
+		}
+	}
 }
@@ -0,0 +1,21 @@
+package blockworld;
+
+// Stops the searches it is given to (TreeSearch.setCancellationToken) from any other thread.
+// The searches check it cooperatively while expanding nodes and return the closest state found so far.
+public class CancellationToken {
+
+	private volatile boolean cancelled;
+
+
+	public void cancel() {
+
+		cancelled = true;
+	}
+
+
+	public boolean isCancelled() {
+
+		return cancelled;
+	}
+
+}
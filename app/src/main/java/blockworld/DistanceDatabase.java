@@ -0,0 +1,448 @@
+package blockworld;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * The exact distance to the solution of every state of a small grid (up to MAX_DIMENSION x MAX_DIMENSION).
+ * A state is ranked to a dense index from its agent cell and the ordered cells of its letters (see rank), so the d^2 x (d^2 - 1) x ...
+ * x (d^2 - d + 1) states of a d x d grid are all kept. The distances are computed once per dimension by a retrograde breadth-first search
+ * starting from every solution, persisted to disk and then read through a memory-mapped file.
+ * Every state takes a nibble, holding its distance modulo DISTANCE_MODULUS (or UNREACHED): a move changes the distance by at most 1,
+ * so the residue is enough to tell the moves going closer to the solution, and the exact distance is found by following them.
+ * As A*, IDA* and SMA* ask for the distance of every node, the distances found are kept in a small direct-mapped cache with
+ * the states of the walk which found them, so the walk from a new state usually stops at the first state of an earlier one.
+ */
+
+public class DistanceDatabase {
+
+	// The folder where the databases are persisted (relative to the working directory).
+	public final static File DEFAULT_DIRECTORY = new File("DistanceDatabases");
+
+	// The largest grid with a database (a 6 x 6 grid would have 1.4 billion states).
+	public final static int MAX_DIMENSION = 5;
+
+	private final static int MAGIC = 0x424C4B44; // "BLKD"
+	private final static int HEADER_BYTES = 2 * Integer.BYTES;
+
+	// The residues of the distances are 0 to DISTANCE_MODULUS - 1, the last nibble value is kept for the unreached states.
+	private final static int DISTANCE_MODULUS = 15;
+	private final static int UNREACHED = 15;
+
+	// The number of entries of the cache of the distances found (see cached).
+	private final static int CACHE_BITS = 16;
+
+	// The rows and columns the agent moves by, in the order of the moves (U, L, D, R).
+	private final static int[] ROW_STEPS = {-1, 0, 1, 0};
+	private final static int[] COLUMN_STEPS = {0, -1, 0, 1};
+
+	// The databases already loaded, by canonical file (they are read-only and can be shared by all the searches of any directory).
+	private final static Map<File, DistanceDatabase> LOADED = new HashMap<File, DistanceDatabase>();
+
+	private final int dimension;
+
+	// The nibble of the state with the given index is at HEADER_BYTES + index / 2 (the low nibble for an even index).
+	private final MappedByteBuffer entries;
+
+	// The distances found lately: an entry holds the index of a state (above its lowest 8 bits) and its distance (in the lowest 8 bits),
+	// or -1 if it is empty. An entry is written and read as a single int, so the searches sharing the database need no lock.
+	private final int[] cache = new int[1 << CACHE_BITS];
+
+
+	private DistanceDatabase(int dimension, MappedByteBuffer entries) {
+
+		this.dimension = dimension;
+		this.entries = entries;
+		Arrays.fill(cache, -1);
+	}
+
+
+	// Will return the database of the d x d grid, loading it from the directory (or building and persisting it first if needed).
+	public static DistanceDatabase load(int d, File directory) throws IOException {
+
+		if (d < 2 || d > MAX_DIMENSION) {
+
+			throw new IllegalArgumentException("The distance database is only available for grids of 2 x 2 to " + MAX_DIMENSION + " x " + MAX_DIMENSION + ".");
+		}
+
+		File file = new File(directory, "dist-" + d + "x" + d + ".bin").getCanonicalFile();
+
+		synchronized (LOADED) {
+
+			DistanceDatabase database = LOADED.get(file);
+
+			if (database == null) {
+
+				if (!file.isFile()) {
+
+					directory.mkdirs();
+					build(d, file);
+				}
+
+				database = map(d, file);
+				LOADED.put(file, database);
+			}
+
+			return database;
+		}
+	}
+
+
+	// The number of states of a d x d grid: the ordered placements of the agent and the d - 1 letters on the d^2 cells.
+	static int statesCount(int d) {
+
+		int cells = d * d;
+		int states = 1;
+		for (int i = 0; i < d; i++) {
+			states *= cells - i;
+		}
+
+		return states;
+	}
+
+
+	// The exact number of moves from this state to the closest solution (-1 if no solution can be reached).
+	public int distance(SearchState state) {
+
+		int[] positions = positionsOf(state);
+		int index = rank(positions);
+		int residue = residue(index);
+
+		if (residue == UNREACHED) {
+			return -1;
+		}
+
+		// Following the moves which lower the residue (by one) until a solution (or a state with a cached distance) is reached.
+		int[] walk = null;
+		int steps = 0;
+		int distance;
+
+		while ((distance = cached(index)) < 0) {
+
+			if (isSolution(positions)) {
+
+				distance = 0;
+				break;
+			}
+
+			if (walk == null || steps == walk.length) {
+				walk = walk == null ? new int[16] : Arrays.copyOf(walk, 2 * steps);
+			}
+			walk[steps++] = index;
+
+			int closer = (residue + DISTANCE_MODULUS - 1) % DISTANCE_MODULUS;
+			int next = -1;
+
+			for (int move = 0; move < 4 && next < 0; move++) {
+
+				int agent = positions[0];
+				int target = target(agent, move);
+
+				if (target < 0) {
+					continue;
+				}
+
+				int moved = rank(swapAgent(positions, target));
+
+				if (residue(moved) == closer) {
+					next = moved;
+				}
+				// Undoing the move that was not closer.
+				else {
+					swapAgent(positions, agent);
+				}
+			}
+
+			if (next < 0) {
+				throw new IllegalStateException("The distance database of the " + dimension + " x " + dimension + " grid is corrupted.");
+			}
+
+			index = next;
+			residue = closer;
+		}
+
+		// Every state of the walk is one move further than the next one.
+		for (int i = 0; i < steps; i++) {
+			cache[slot(walk[i])] = walk[i] << 8 | (distance + steps - i);
+		}
+
+		return distance + steps;
+	}
+
+
+	// The cached distance of the state with the given index (-1 if it is not in the cache).
+	private int cached(int index) {
+
+		int entry = cache[slot(index)];
+
+		return entry >= 0 && entry >>> 8 == index ? entry & 0xFF : -1;
+	}
+
+
+	// The entry of the cache of a state (the index is spread by a multiplicative hash, as the indexes of neighbouring states are close).
+	private static int slot(int index) {
+
+		return (index * 0x9E3779B9) >>> (32 - CACHE_BITS);
+	}
+
+
+	// If moving the agent of this state in the given direction (a legal move, see SearchState.canMove) leads one move closer to a solution.
+	public boolean leadsCloser(SearchState state, char direction) {
+
+		int[] positions = positionsOf(state);
+		int residue = residue(rank(positions));
+
+		if (residue == UNREACHED || isSolution(positions)) {
+			return false;
+		}
+
+		int target = target(positions[0], "ULDR".indexOf(direction));
+
+		return residue(rank(swapAgent(positions, target))) == (residue + DISTANCE_MODULUS - 1) % DISTANCE_MODULUS;
+	}
+
+
+	public int getDimension() {
+
+		return dimension;
+	}
+
+
+	// A short description of the database, for the search analysis.
+	public String getDescription() {
+
+		return "Exact distance database (" + dimension + " x " + dimension + ")";
+	}
+
+
+	private int residue(int index) {
+
+		int entry = entries.get(HEADER_BYTES + index / 2);
+
+		return ((index & 1) == 0 ? entry : entry >>> 4) & 0xF;
+	}
+
+
+	// positions[0] is the agent cell and positions[i] the cell of the letter ('A' + i - 1).
+	private int[] positionsOf(SearchState state) {
+
+		int[] positions = new int[dimension];
+
+		positions[0] = state.getAgentCell();
+		for (int i = 1; i < dimension; i++) {
+			positions[i] = state.getLetterCell(i - 1);
+		}
+
+		return positions;
+	}
+
+
+	// The cell the agent reaches with the move (0 - U, 1 - L, 2 - D, 3 - R), or -1 if it would leave the grid.
+	private int target(int agent, int move) {
+
+		return target(dimension, agent, move);
+	}
+
+
+	private static int target(int d, int agent, int move) {
+
+		int row = agent / d + ROW_STEPS[move];
+		int column = agent % d + COLUMN_STEPS[move];
+
+		if (row < 0 || row >= d || column < 0 || column >= d) {
+			return -1;
+		}
+
+		return row * d + column;
+	}
+
+
+	// Moves the agent to the target cell, swapping places with the letter on it (if any). Moving it back undoes the move.
+	private static int[] swapAgent(int[] positions, int target) {
+
+		int agent = positions[0];
+
+		for (int i = 1; i < positions.length; i++) {
+			if (positions[i] == target) {
+				positions[i] = agent;
+			}
+		}
+		positions[0] = target;
+
+		return positions;
+	}
+
+
+	// Every letter on column 1, 'A' on row 1, 'B' on row 2 and so on.
+	private boolean isSolution(int[] positions) {
+
+		for (int i = 1; i < dimension; i++) {
+			if (positions[i] != i * dimension + 1) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+
+	// The dense index of the positions: each cell is numbered among the cells not taken by the positions before it,
+	// and the numbers are combined in a mixed radix (d^2, d^2 - 1, ..., d^2 - d + 1).
+	static int rank(int[] positions, int cells) {
+
+		int index = 0;
+
+		for (int i = 0; i < positions.length; i++) {
+
+			int free = positions[i];
+			for (int j = 0; j < i; j++) {
+				if (positions[j] < positions[i]) {
+					free--;
+				}
+			}
+
+			index = index * (cells - i) + free;
+		}
+
+		return index;
+	}
+
+
+	private int rank(int[] positions) {
+
+		return rank(positions, dimension * dimension);
+	}
+
+
+	// The positions with the given index (the reverse of rank).
+	static void unrank(int index, int[] positions, int cells) {
+
+		int[] free = new int[positions.length];
+
+		for (int i = positions.length - 1; i >= 0; i--) {
+			free[i] = index % (cells - i);
+			index /= cells - i;
+		}
+
+		boolean[] taken = new boolean[cells];
+
+		for (int i = 0; i < positions.length; i++) {
+
+			int cell = 0;
+			for (int skipped = 0; taken[cell] || skipped < free[i]; cell++) {
+				if (!taken[cell]) {
+					skipped++;
+				}
+			}
+
+			taken[cell] = true;
+			positions[i] = cell;
+		}
+	}
+
+
+	private static DistanceDatabase map(int d, File file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.BIG_ENDIAN);
+
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != d || channel.size() != HEADER_BYTES + (statesCount(d) + 1) / 2) {
+
+				throw new IOException("Not a distance database of a " + d + " x " + d + " grid: " + file);
+			}
+
+			return new DistanceDatabase(d, buffer);
+		}
+	}
+
+
+	// The retrograde breadth-first search over all the states, from all the solutions.
+	// As every move can be undone by the opposite move, searching backward is searching forward from the solutions.
+	private static void build(int d, File file) throws IOException {
+
+		// On the error stream, as the standard output may hold the results of a batch (see BatchSolver).
+		System.err.println("Building the distance database of the " + d + " x " + d + " grid...");
+
+		int cells = d * d;
+		int states = statesCount(d);
+
+		// The exact distances while searching (a 5 x 5 grid has 6.4 million states), packed into nibbles at the end.
+		byte[] distances = new byte[states];
+		Arrays.fill(distances, (byte) 0xFF);
+
+		int[] queue = new int[states];
+		int head = 0;
+		int tail = 0;
+
+		// The solutions: the letters in their desired positions and the agent anywhere else.
+		int[] positions = new int[d];
+		for (int i = 1; i < d; i++) {
+			positions[i] = i * d + 1;
+		}
+
+		for (int agent = 0; agent < cells; agent++) {
+
+			if (agent % d == 1 && agent / d >= 1) {
+				continue;
+			}
+
+			positions[0] = agent;
+			int index = rank(positions, cells);
+			distances[index] = 0;
+			queue[tail++] = index;
+		}
+
+		while (head < tail) {
+
+			int index = queue[head++];
+			int distance = distances[index] & 0xFF;
+
+			unrank(index, positions, cells);
+
+			int agent = positions[0];
+
+			for (int move = 0; move < 4; move++) {
+
+				int target = target(d, agent, move);
+
+				if (target < 0) {
+					continue;
+				}
+
+				int child = rank(swapAgent(positions, target), cells);
+				swapAgent(positions, agent);
+
+				if (distances[child] == (byte) 0xFF) {
+
+					distances[child] = (byte) (distance + 1);
+					queue[tail++] = child;
+				}
+			}
+		}
+
+		byte[] nibbles = new byte[(states + 1) / 2];
+		for (int index = 0; index < states; index++) {
+
+			int residue = distances[index] == (byte) 0xFF ? UNREACHED : (distances[index] & 0xFF) % DISTANCE_MODULUS;
+			nibbles[index / 2] |= (index & 1) == 0 ? residue : residue << 4;
+		}
+
+		// The database is written next to its final place and then renamed, so a partial file is never mapped.
+		File partial = new File(file.getPath() + ".tmp");
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partial)))) {
+
+			output.writeInt(MAGIC);
+			output.writeInt(d);
+			output.write(nibbles);
+		}
+
+		Files.move(partial.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
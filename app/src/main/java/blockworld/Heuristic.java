@@ -0,0 +1,97 @@
+package blockworld;
+
+// The estimated distance to the solution used by A*, IDA* and SMA* (see TreeSearch.setHeuristic).
+// An estimate never exceeds the number of moves left to a solution (admissible), so the optimal strategies stay optimal.
+public interface Heuristic {
+
+	// The sum of the Manhattan distances of the letters to their desired positions (kept up to date by SearchState.move).
+	Heuristic MANHATTAN = new ManhattanHeuristic();
+
+	// The Manhattan distance plus the moves the agent needs to reach a misplaced letter.
+	Heuristic AGENT_DISTANCE = new AgentDistanceHeuristic();
+
+	// The Manhattan distance plus the detours of the letters blocking each other on the column of the solution.
+	Heuristic LINEAR_CONFLICT = new LinearConflictHeuristic();
+
+	// The highest of the two estimates above.
+	Heuristic STRONGEST = maximum("Manhattan distance + max(agent distance, linear conflicts)", AGENT_DISTANCE, LINEAR_CONFLICT);
+
+
+	int estimate(SearchState state);
+
+
+	// The incremental hook of the searches (A*, IDA* and SMA*): the estimate of the state just reached by the move,
+	// given the estimate and the Manhattan distance of the state before it. By default, the estimate is computed again.
+	default int estimateAfterMove(SearchState state, char move, int previousEstimate, int previousDistance) {
+
+		return estimate(state);
+	}
+
+
+	// Whether estimateAfterMove updates the previous estimate instead of computing the estimate again. Given a previous estimate
+	// above the real one (the one of a maximum of heuristics, see maximum), such a hook returns an upper bound of the estimate.
+	default boolean updatesPreviousEstimate() {
+
+		return false;
+	}
+
+
+	// A short description of the heuristic, for the search analysis.
+	String getDescription();
+
+
+	// The version of the estimates, part of the settings of the cached solutions (see SolutionCache). It needs to be bumped
+	// whenever a change makes the heuristic return different estimates, as the searches using it then return different statistics.
+	default int getVersion() {
+
+		return 1;
+	}
+
+
+	// The highest estimate of the heuristics (still admissible, as none of them overestimates), with the given description.
+	static Heuristic maximum(String description, Heuristic... heuristics) {
+
+		Heuristic[] parts = heuristics.clone();
+
+		return new Heuristic() {
+
+			@Override
+			public int estimate(SearchState state) {
+
+				int estimate = 0;
+				for (Heuristic part : parts) {
+					estimate = Math.max(estimate, part.estimate(state));
+				}
+
+				return estimate;
+			}
+
+			// The previous estimate of the maximum is at least the previous estimate of every part, so the parts which update it
+			// only return an upper bound: their estimate is only computed again if that bound is above the highest estimate so far.
+			// The result is the exact maximum (even from a previous estimate above the real one).
+			@Override
+			public int estimateAfterMove(SearchState state, char move, int previousEstimate, int previousDistance) {
+
+				int estimate = 0;
+				for (Heuristic part : parts) {
+					if (!part.updatesPreviousEstimate()) {
+						estimate = Math.max(estimate, part.estimateAfterMove(state, move, previousEstimate, previousDistance));
+					}
+				}
+				for (Heuristic part : parts) {
+					if (part.updatesPreviousEstimate() && part.estimateAfterMove(state, move, previousEstimate, previousDistance) > estimate) {
+						estimate = Math.max(estimate, part.estimate(state));
+					}
+				}
+
+				return estimate;
+			}
+
+			@Override
+			public String getDescription() {
+
+				return description;
+			}
+		};
+	}
+}
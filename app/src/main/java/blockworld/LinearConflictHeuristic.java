@@ -0,0 +1,93 @@
+package blockworld;
+
+import java.util.Arrays;
+
+// The Manhattan distance plus the linear conflicts of the letters on column 1, where all of them belong.
+// A letter only moves into the cell of the agent, so two letters never pass each other while both stay on the column:
+// if their order on the column is the reverse of their desired order, one of them has to leave it and come back (2 moves more
+// than its Manhattan distance). The letters which have to leave are at least the ones outside a longest sequence in the right order.
+// Only the moves taking the agent (or the letter it swaps with) on or off the column can change the conflicts,
+// so the penalty of the previous state is kept for all the other moves.
+public class LinearConflictHeuristic implements Heuristic {
+
+	@Override
+	public int estimate(SearchState state) {
+
+		return state.getDistanceToSolution() + conflictPenalty(state);
+	}
+
+
+	@Override
+	public int estimateAfterMove(SearchState state, char move, int previousEstimate, int previousDistance) {
+
+		int column = state.getAgentCell() % state.getDimension();
+
+		// A vertical move on column 1 (or a horizontal one from or to it) moves a letter on the column.
+		boolean onColumn = (move == 'U' || move == 'D') ? column == 1 : column == 1 || column == (move == 'L' ? 0 : 2);
+
+		if (onColumn) {
+			return estimate(state);
+		}
+
+		return state.getDistanceToSolution() + previousEstimate - previousDistance;
+	}
+
+
+	@Override
+	public boolean updatesPreviousEstimate() {
+
+		return true;
+	}
+
+
+	// 2 moves for every letter of column 1 outside a longest sequence of letters in their desired order (from the top).
+	private static int conflictPenalty(SearchState state) {
+
+		int d = state.getDimension();
+
+		// The letters of column 1, from the top.
+		int[] letters = new int[d];
+		int count = 0;
+
+		int[] byRow = new int[d];
+		Arrays.fill(byRow, -1);
+
+		for (int letter = 0; letter < d - 1; letter++) {
+
+			int cell = state.getLetterCell(letter);
+			if (cell % d == 1) {
+				byRow[cell / d] = letter;
+			}
+		}
+
+		for (int row = 0; row < d; row++) {
+			if (byRow[row] >= 0) {
+				letters[count++] = byRow[row];
+			}
+		}
+
+		// The longest increasing subsequence (quadratic, the column holds less than d letters).
+		int[] longest = new int[count];
+		int best = 0;
+
+		for (int i = 0; i < count; i++) {
+
+			longest[i] = 1;
+			for (int j = 0; j < i; j++) {
+				if (letters[j] < letters[i] && longest[j] + 1 > longest[i]) {
+					longest[i] = longest[j] + 1;
+				}
+			}
+			best = Math.max(best, longest[i]);
+		}
+
+		return 2 * (count - best);
+	}
+
+
+	@Override
+	public String getDescription() {
+
+		return "Manhattan distance + linear conflicts";
+	}
+}
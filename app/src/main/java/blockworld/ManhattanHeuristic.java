@@ -0,0 +1,27 @@
+package blockworld;
+
+// The sum of the Manhattan distances of the letters to their desired positions, the default heuristic.
+// Every move shifts a single letter by one cell, so it never lowers the sum by more than 1.
+// SearchState keeps the sum up to date on every move, so the estimate of a state costs nothing.
+public class ManhattanHeuristic implements Heuristic {
+
+	@Override
+	public int estimate(SearchState state) {
+
+		return state.getDistanceToSolution();
+	}
+
+
+	@Override
+	public int estimateAfterMove(SearchState state, char move, int previousEstimate, int previousDistance) {
+
+		return state.getDistanceToSolution();
+	}
+
+
+	@Override
+	public String getDescription() {
+
+		return "Manhattan distance";
+	}
+}
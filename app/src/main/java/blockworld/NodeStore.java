@@ -0,0 +1,216 @@
+package blockworld;
+
+import java.util.Arrays;
+
+/*
+ * The nodes of a search tree as parallel primitive arrays, addressed by int ids (the order the nodes were added in).
+ * A node is its packed state (see SearchState.writePacked), the id of its parent, its depth and the move that reached it,
+ * which takes a few bytes per node instead of a Node and a SearchState object with their headers and references.
+ * The arrays grow in chunks of CHUNK nodes, so growing never copies the nodes already stored.
+ * The states are only rebuilt as SearchState objects when a node is expanded.
+ * Every node also counts its children in the store, so a branch left without children (all of them pruned as duplicates by a graph search)
+ * is released (see release): its nodes stop being live, while their slots and ids are kept for the paths and the traces.
+ */
+
+public class NodeStore {
+
+	// The parent id of the root.
+	public final static int NO_PARENT = -1;
+
+	private final static int CHUNK_BITS = 16;
+	private final static int CHUNK = 1 << CHUNK_BITS;
+
+	private final int dimension;
+
+	// The number of longs in the packed form of a state.
+	private final int words;
+
+	// Node id lives in chunk (id >>> CHUNK_BITS), at (id & (CHUNK - 1)) in every array of the chunk (times words for the states).
+	private long[][] states = new long[0][];
+	private int[][] parents = new int[0][];
+	private int[][] depths = new int[0][];
+	private byte[][] moves = new byte[0][];
+	private byte[][] children = new byte[0][];
+
+	// The estimates of the heuristic of the nodes (null if the store keeps none).
+	private int[][] estimates;
+
+	private int size;
+	private int released;
+
+	// Reused to rebuild the states.
+	private final long[] packed;
+
+
+	public NodeStore(int d) {
+
+		this(d, false);
+	}
+
+
+	// With estimates, the store also keeps the estimate of the heuristic of every node (see setEstimate), which A* updates for the children.
+	public NodeStore(int d, boolean estimates) {
+
+		this.dimension = d;
+		this.words = SearchState.packedWords(d);
+		this.packed = new long[words];
+		this.estimates = estimates ? new int[0][] : null;
+	}
+
+
+	// Stores a node, returning its id.
+	public int add(SearchState state, int parent, int depth) {
+
+		if (size == Integer.MAX_VALUE) {
+
+			throw new IllegalStateException("The node store is full.");
+		}
+
+		int chunk = size >>> CHUNK_BITS;
+		int offset = size & (CHUNK - 1);
+
+		if (chunk == states.length) {
+
+			int chunks = Math.max(1, states.length * 2);
+			states = Arrays.copyOf(states, chunks);
+			parents = Arrays.copyOf(parents, chunks);
+			depths = Arrays.copyOf(depths, chunks);
+			moves = Arrays.copyOf(moves, chunks);
+			children = Arrays.copyOf(children, chunks);
+			if (estimates != null) {
+				estimates = Arrays.copyOf(estimates, chunks);
+			}
+		}
+
+		if (states[chunk] == null) {
+
+			states[chunk] = new long[CHUNK * words];
+			parents[chunk] = new int[CHUNK];
+			depths[chunk] = new int[CHUNK];
+			moves[chunk] = new byte[CHUNK];
+			children[chunk] = new byte[CHUNK];
+			if (estimates != null) {
+				estimates[chunk] = new int[CHUNK];
+			}
+		}
+
+		state.writePacked(states[chunk], offset * words);
+		parents[chunk][offset] = parent;
+		depths[chunk][offset] = depth;
+		moves[chunk][offset] = (byte) state.getLastMove();
+
+		if (parent != NO_PARENT) {
+			children[parent >>> CHUNK_BITS][parent & (CHUNK - 1)]++;
+		}
+
+		return size++;
+	}
+
+
+	// The number of nodes stored (the ids go from 0 to size() - 1).
+	public int size() {
+
+		return size;
+	}
+
+
+	// The number of nodes stored and not released.
+	public int live() {
+
+		return size - released;
+	}
+
+
+	// The number of children of the node in the store (not released).
+	public int getChildren(int id) {
+
+		return children[id >>> CHUNK_BITS][id & (CHUNK - 1)];
+	}
+
+
+	// Releases the node, if it has no children (once it was expanded), and then every ancestor left without children by it (the root is kept).
+	// Returns the number of nodes released.
+	public int release(int id) {
+
+		int count = 0;
+
+		for (int node = id; getChildren(node) == 0 && getParent(node) != NO_PARENT; node = getParent(node)) {
+
+			children[getParent(node) >>> CHUNK_BITS][getParent(node) & (CHUNK - 1)]--;
+			count++;
+		}
+
+		released += count;
+
+		return count;
+	}
+
+
+	// The state of the node with the given id (rebuilt from its packed form).
+	public SearchState getState(int id) {
+
+		System.arraycopy(states[id >>> CHUNK_BITS], (id & (CHUNK - 1)) * words, packed, 0, words);
+
+		return SearchState.readPacked(dimension, packed, 0, getLastMove(id));
+	}
+
+
+	public int getParent(int id) {
+
+		return parents[id >>> CHUNK_BITS][id & (CHUNK - 1)];
+	}
+
+
+	public int getDepth(int id) {
+
+		return depths[id >>> CHUNK_BITS][id & (CHUNK - 1)];
+	}
+
+
+	// Only for a store keeping the estimates.
+	public int getEstimate(int id) {
+
+		return estimates[id >>> CHUNK_BITS][id & (CHUNK - 1)];
+	}
+
+
+	public void setEstimate(int id, int estimate) {
+
+		estimates[id >>> CHUNK_BITS][id & (CHUNK - 1)] = estimate;
+	}
+
+
+	public char getLastMove(int id) {
+
+		return (char) moves[id >>> CHUNK_BITS][id & (CHUNK - 1)];
+	}
+
+
+	// The moves from the root to the node with the given id.
+	public char[] getPath(int id) {
+
+		char[] path = new char[getDepth(id)];
+
+		for (int node = id; getParent(node) != NO_PARENT; node = getParent(node)) {
+
+			path[getDepth(node) - 1] = getLastMove(node);
+		}
+
+		return path;
+	}
+
+
+	// Removes every node (the chunks are released).
+	public void clear() {
+
+		states = new long[0][];
+		parents = new int[0][];
+		depths = new int[0][];
+		moves = new byte[0][];
+		children = new byte[0][];
+		estimates = (estimates != null) ? new int[0][] : null;
+		size = 0;
+		released = 0;
+	}
+
+}
@@ -0,0 +1,183 @@
+package blockworld;
+
+import java.util.Arrays;
+
+/*
+ * The set of states already reached by a graph search.
+ * States are kept in their packed form (see SearchState.writePacked) in an open-addressing table of primitive longs,
+ * so no SearchState or boxed key is retained for a visited configuration.
+ * Each state remembers the lowest cost (depth) it was reached with, which allows a search to reopen it when a better one is found
+ * (or any other non-negative value, such as the index of its node, when added with addIfAbsent).
+ */
+
+public class PackedStateSet {
+
+	// Marks a free slot in the costs table (costs are never negative).
+	private final static int FREE = -1;
+
+	// The table is grown once it is half full, which keeps the linear probing sequences short.
+	private final static int INITIAL_CAPACITY = 1 << 10;
+
+	// The number of longs in the packed form of a state.
+	private final int words;
+
+	// Slot i holds its packed state in keys[i * words .. i * words + words - 1] and its cost in costs[i].
+	private long[] keys;
+	private int[] costs;
+
+	private int size;
+
+	// Reused for every lookup, so that probing the set does not allocate.
+	private final long[] probe;
+
+
+	public PackedStateSet(int words) {
+
+		this.words = words;
+		this.probe = new long[words];
+
+		keys = new long[INITIAL_CAPACITY * words];
+		costs = new int[INITIAL_CAPACITY];
+		Arrays.fill(costs, FREE);
+	}
+
+
+	// Records the state with the given cost.
+	// Returns true if the state was not in the set or was only reached before with a higher cost (it should then be (re)opened),
+	// and false if it is a duplicate that can be pruned.
+	public boolean addIfBetter(SearchState state, int cost) {
+
+		state.writePacked(probe, 0);
+
+		int slot = findSlot(probe, keys, costs);
+
+		if (costs[slot] == FREE) {
+
+			System.arraycopy(probe, 0, keys, slot * words, words);
+			costs[slot] = cost;
+
+			if (++size * 2 > costs.length) {
+				grow();
+			}
+
+			return true;
+		}
+
+		if (cost < costs[slot]) {
+
+			costs[slot] = cost;
+			return true;
+		}
+
+		return false;
+	}
+
+
+	// Records the state with the given value (a cost or, for instance, the index of its node) if it is not in the set yet.
+	// Returns false if the state was already in the set (its value is then kept).
+	public boolean addIfAbsent(SearchState state, int value) {
+
+		state.writePacked(probe, 0);
+
+		int slot = findSlot(probe, keys, costs);
+
+		if (costs[slot] != FREE) {
+			return false;
+		}
+
+		System.arraycopy(probe, 0, keys, slot * words, words);
+		costs[slot] = value;
+
+		if (++size * 2 > costs.length) {
+			grow();
+		}
+
+		return true;
+	}
+
+
+	// The lowest cost (or the value) the state was recorded with, or -1 if it is not in the set.
+	public int costOf(SearchState state) {
+
+		state.writePacked(probe, 0);
+
+		return costs[findSlot(probe, keys, costs)];
+	}
+
+
+	public int size() {
+
+		return size;
+	}
+
+
+	public void clear() {
+
+		Arrays.fill(costs, FREE);
+		size = 0;
+	}
+
+
+	// Linear probing: returns the slot holding the key, or the free slot where it would be inserted.
+	private int findSlot(long[] key, long[] keyTable, int[] costTable) {
+
+		int mask = costTable.length - 1;
+		int slot = hash(key) & mask;
+
+		while (costTable[slot] != FREE && !sameKey(key, keyTable, slot)) {
+			slot = (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+
+	private boolean sameKey(long[] key, long[] keyTable, int slot) {
+
+		for (int w = 0; w < words; w++) {
+			if (keyTable[slot * words + w] != key[w]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+
+	// Mixes all the words of a packed state (the packed cells themselves are far from uniformly distributed).
+	private int hash(long[] key) {
+
+		long h = 0;
+		for (int w = 0; w < words; w++) {
+
+			h = (h ^ key[w]) * 0x9E3779B97F4A7C15L;
+			h ^= h >>> 32;
+		}
+
+		return (int) h;
+	}
+
+
+	private void grow() {
+
+		long[] oldKeys = keys;
+		int[] oldCosts = costs;
+
+		keys = new long[oldKeys.length * 2];
+		costs = new int[oldCosts.length * 2];
+		Arrays.fill(costs, FREE);
+
+		long[] key = new long[words];
+		for (int i = 0; i < oldCosts.length; i++) {
+
+			if (oldCosts[i] != FREE) {
+
+				System.arraycopy(oldKeys, i * words, key, 0, words);
+
+				int slot = findSlot(key, keys, costs);
+				System.arraycopy(key, 0, keys, slot * words, words);
+				costs[slot] = oldCosts[i];
+			}
+		}
+	}
+}
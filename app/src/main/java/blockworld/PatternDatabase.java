@@ -0,0 +1,247 @@
+package blockworld;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * A pattern database heuristic for the Blockworld Puzzle.
+ * The abstraction keeps the agent and the first letters of the grid (A, B, ...) and ignores the other letters.
+ * The exact distance to the solution of every abstract state is computed once per dimension by a breadth-first search
+ * going backward from the abstract solutions, persisted to disk and then read through a memory-mapped file.
+ * An abstract distance never exceeds the real one, so the heuristic is admissible.
+ */
+
+public class PatternDatabase {
+
+	// The folder where the databases are persisted (relative to the working directory).
+	public final static File DEFAULT_DIRECTORY = new File("PatternDatabases");
+
+	// The largest number of entries (one byte each) a database may have.
+	private final static long MAX_ENTRIES = 1L << 24;
+
+	private final static int MAGIC = 0x424C4B50; // "BLKP"
+	private final static int HEADER_BYTES = 3 * Integer.BYTES;
+
+	// An abstract state that was not reached.
+	private final static byte UNREACHED = (byte) 0xFF;
+
+	// The databases already loaded, by file (they are read-only and can be shared by all the searches).
+	// The files are canonical, so a database is only loaded once from a directory, but the same grid can be loaded from several directories.
+	private final static Map<File, PatternDatabase> LOADED = new HashMap<File, PatternDatabase>();
+
+	private final int dimension;
+
+	// The number of letters kept by the abstraction.
+	private final int letters;
+
+	// The entry at HEADER_BYTES + index is the distance of the abstract state with the given index (see build).
+	private final MappedByteBuffer entries;
+
+
+	private PatternDatabase(int dimension, int letters, MappedByteBuffer entries) {
+
+		this.dimension = dimension;
+		this.letters = letters;
+		this.entries = entries;
+	}
+
+
+	// Will return the database of the d x d grid, loading it from the directory (or building and persisting it first if needed).
+	public static PatternDatabase load(int d, File directory) throws IOException {
+
+		File file = new File(directory, "pdb-" + d + "x" + d + ".bin").getCanonicalFile();
+
+		synchronized (LOADED) {
+
+			PatternDatabase database = LOADED.get(file);
+
+			if (database == null) {
+
+				if (!file.isFile()) {
+
+					directory.mkdirs();
+					build(d, file);
+				}
+
+				database = map(d, file);
+				LOADED.put(file, database);
+			}
+
+			return database;
+		}
+	}
+
+
+	// The number of letters (from 'A') the abstraction of a d x d grid keeps: as many as fit in MAX_ENTRIES.
+	private static int lettersKept(int d) {
+
+		int cells = d * d;
+		int letters = 0;
+		long entries = cells;
+
+		while (letters < d - 1 && entries * cells <= MAX_ENTRIES) {
+
+			entries *= cells;
+			letters++;
+		}
+
+		return letters;
+	}
+
+
+	private static long entriesCount(int d, int letters) {
+
+		long entries = 1;
+		for (int i = 0; i <= letters; i++) {
+			entries *= d * d;
+		}
+
+		return entries;
+	}
+
+
+	// The distance to the solution of the abstraction of this state.
+	public int estimate(SearchState state) {
+
+		int cells = dimension * dimension;
+
+		int index = 0;
+		for (int i = letters - 1; i >= 0; i--) {
+			index = index * cells + state.getLetterCell(i);
+		}
+		index = index * cells + state.getAgentCell();
+
+		return entries.get(HEADER_BYTES + index) & 0xFF;
+	}
+
+
+	public int getDimension() {
+
+		return dimension;
+	}
+
+
+	// A short description of the abstraction, for the search analysis.
+	public String getDescription() {
+
+		return letters == 0 ? "Pattern database (agent only)" : "Pattern database (agent + letters A-" + (char) ('A' + letters - 1) + ")";
+	}
+
+
+	private static PatternDatabase map(int d, File file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.BIG_ENDIAN);
+
+			int letters = buffer.getInt(2 * Integer.BYTES);
+
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != d
+					|| channel.size() != HEADER_BYTES + entriesCount(d, letters)) {
+
+				throw new IOException("Not a pattern database of a " + d + " x " + d + " grid: " + file);
+			}
+
+			return new PatternDatabase(d, letters, buffer);
+		}
+	}
+
+
+	// The backward breadth-first search over the abstract states.
+	// An abstract state with the index (agent + cells * (A + cells * (B + ...))) holds the cells of the agent and of the letters kept.
+	// As every move can be undone by the opposite move, searching backward is searching forward from all the abstract solutions.
+	private static void build(int d, File file) throws IOException {
+
+		// Not on the standard output, which BatchSolver writes its results to.
+		System.err.println("Building the pattern database of the " + d + " x " + d + " grid...");
+
+		int cells = d * d;
+		int letters = lettersKept(d);
+		int entries = (int) entriesCount(d, letters);
+
+		byte[] distances = new byte[entries];
+		Arrays.fill(distances, UNREACHED);
+
+		int[] queue = new int[entries];
+		int head = 0;
+		int tail = 0;
+
+		// The abstract solutions: the letters kept in their desired positions and the agent anywhere else.
+		int lettersIndex = 0;
+		for (int i = letters - 1; i >= 0; i--) {
+			lettersIndex = lettersIndex * cells + (i + 1) * d + 1;
+		}
+
+		for (int agent = 0; agent < cells; agent++) {
+
+			if (agent % d == 1 && agent / d >= 1 && agent / d <= letters) {
+				continue;
+			}
+
+			int index = lettersIndex * cells + agent;
+			distances[index] = 0;
+			queue[tail++] = index;
+		}
+
+		int[] positions = new int[letters + 1];
+
+		while (head < tail) {
+
+			int index = queue[head++];
+			int distance = distances[index] & 0xFF;
+
+			// positions[0] is the agent cell and positions[i] the cell of the i-th letter kept.
+			int rest = index;
+			for (int i = 0; i <= letters; i++) {
+				positions[i] = rest % cells;
+				rest /= cells;
+			}
+
+			int agentR = positions[0] / d;
+			int agentC = positions[0] % d;
+
+			for (int move = 0; move < 4; move++) {
+
+				int targetR = agentR + (move == 0 ? -1 : move == 2 ? 1 : 0);
+				int targetC = agentC + (move == 1 ? -1 : move == 3 ? 1 : 0);
+
+				if (targetR < 0 || targetR >= d || targetC < 0 || targetC >= d) {
+					continue;
+				}
+
+				int target = targetR * d + targetC;
+
+				// The agent swaps places with the letter kept on the target cell (if any).
+				int child = 0;
+				for (int i = letters; i >= 1; i--) {
+					child = child * cells + (positions[i] == target ? positions[0] : positions[i]);
+				}
+				child = child * cells + target;
+
+				if (distances[child] == UNREACHED) {
+
+					distances[child] = (byte) Math.min(distance + 1, 0xFE);
+					queue[tail++] = child;
+				}
+			}
+		}
+
+		// The database is written next to its final place and then renamed, so a partial file is never mapped.
+		File partial = new File(file.getPath() + ".tmp");
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partial)))) {
+
+			output.writeInt(MAGIC);
+			output.writeInt(d);
+			output.writeInt(letters);
+			output.write(distances);
+		}
+
+		Files.move(partial.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
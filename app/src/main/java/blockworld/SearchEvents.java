@@ -0,0 +1,62 @@
+package blockworld;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/*
+ * The Flight Recorder events of the searches, shown in JMC under "Blockworld" or printed with jfr print --events blockworld.*
+ * (for example after java -XX:StartFlightRecording=filename=search.jfr ...). When no recording is running, an event costs
+ * a check of whether it is enabled.
+ */
+
+public class SearchEvents {
+
+	private SearchEvents() {
+	}
+
+
+	// One iteration of IDS (a depth limit) or IDA* (an f-bound); its duration is the time spent on the iteration.
+	@Name("blockworld.Iteration")
+	@Label("Search Iteration")
+	@Category("Blockworld")
+	@Description("An iteration of a depth-limited search (IDS) or of IDA*")
+	static class Iteration extends Event {
+
+		@Label("Strategy")
+		char strategy;
+
+		@Label("Bound")
+		@Description("The depth limit (IDS) or the f-bound (IDA*) of the iteration")
+		int bound;
+
+		@Label("Nodes Created")
+		long nodesCreated;
+
+		@Label("Solved")
+		boolean solved;
+	}
+
+
+	// A solution was found; its duration is the time the search took to find it.
+	@Name("blockworld.SolutionFound")
+	@Label("Solution Found")
+	@Category("Blockworld")
+	static class SolutionFound extends Event {
+
+		@Label("Strategy")
+		char strategy;
+
+		@Label("Depth")
+		int depth;
+
+		@Label("Nodes Created")
+		long nodesCreated;
+
+		@Label("Peak Nodes")
+		long peakNodes;
+	}
+
+}
@@ -0,0 +1,154 @@
+package blockworld;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * The live metrics of one search (see TreeSearch.getMetrics), also registered as an MBean (blockworld:type=Search,name=<strategy>-<number>)
+ * while the search runs if the live metrics are on.
+ * The search thread publishes its counters into volatile fields from time to time (see TreeSearch.checkBudget),
+ * so reading the MBean from another thread never slows down or locks the search.
+ */
+
+public class SearchMetrics implements SearchMetricsMBean {
+
+	// Numbers the searches, so concurrent searches (multiple tests) get MBeans of their own.
+	private final static AtomicInteger SEARCHES = new AtomicInteger();
+
+	private final char strategy;
+	private final long startNanos;
+
+	private volatile long nodesCreated;
+	private volatile long fringeSize;
+	private volatile long peakFringeSize;
+	private volatile int depth;
+	private volatile int bound = -1;
+	private volatile long updateNanos;
+
+	private ObjectName name;
+
+
+	public SearchMetrics(char strategy) {
+
+		this.strategy = strategy;
+		this.startNanos = this.updateNanos = System.nanoTime();
+	}
+
+
+	// Called by the search thread only.
+	void publish(long nodesCreated, long fringeSize, long peakFringeSize, int depth, int bound) {
+
+		this.nodesCreated = nodesCreated;
+		this.fringeSize = fringeSize;
+		this.peakFringeSize = peakFringeSize;
+		this.depth = depth;
+		this.bound = bound;
+		this.updateNanos = System.nanoTime();
+	}
+
+
+	// Registers the MBean with the platform MBean server.
+	void register() {
+
+		try {
+			name = new ObjectName("blockworld:type=Search,name=" + strategy + "-" + SEARCHES.incrementAndGet());
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+
+		} catch (JMException e) {
+
+			throw new IllegalStateException("The search metrics could not be registered.", e);
+		}
+	}
+
+
+	// Unregisters the MBean (if it was registered).
+	void unregister() {
+
+		if (name == null) {
+
+			return;
+		}
+
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		try {
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+
+		} catch (JMException e) {
+
+			throw new IllegalStateException("The search metrics could not be unregistered.", e);
+		}
+	}
+
+
+	@Override
+	public String getStrategy() {
+
+		return String.valueOf(strategy);
+	}
+
+
+	@Override
+	public long getNodesCreated() {
+
+		return nodesCreated;
+	}
+
+
+	@Override
+	public long getNodesPerSecond() {
+
+		long elapsed = updateNanos - startNanos;
+
+		return elapsed > 0 ? nodesCreated * 1000000000L / elapsed : 0;
+	}
+
+
+	@Override
+	public long getFringeSize() {
+
+		return fringeSize;
+	}
+
+
+	@Override
+	public long getPeakFringeSize() {
+
+		return peakFringeSize;
+	}
+
+
+	@Override
+	public int getDepth() {
+
+		return depth;
+	}
+
+
+	@Override
+	public int getBound() {
+
+		return bound;
+	}
+
+
+	@Override
+	public long getElapsedMillis() {
+
+		return (System.nanoTime() - startNanos) / 1000000;
+	}
+
+
+	@Override
+	public long getMillisSinceUpdate() {
+
+		return (System.nanoTime() - updateNanos) / 1000000;
+	}
+
+}
@@ -0,0 +1,32 @@
+package blockworld;
+
+// The live metrics of a running search, as seen through JMX (jconsole, JMC or jcmd).
+// The values are published by the search every few thousand nodes, so they may lag slightly behind it.
+public interface SearchMetricsMBean {
+
+	// The strategy of the search (B, D, I, A, F, T, M or L).
+	String getStrategy();
+
+	long getNodesCreated();
+
+	// The average rate of node creation since the search started.
+	long getNodesPerSecond();
+
+	// The nodes in memory now and at most so far (the space complexity).
+	long getFringeSize();
+
+	long getPeakFringeSize();
+
+	// The depth of the last node the search went through.
+	int getDepth();
+
+	// The depth limit of an IDS iteration, the f-bound of an IDA* iteration or the f-value of the last node expanded by A* and SMA*
+	// (-1 for the searches without a bound).
+	int getBound();
+
+	long getElapsedMillis();
+
+	// The time since the search last published its metrics: if it keeps growing, the search is stalled.
+	long getMillisSinceUpdate();
+
+}
@@ -0,0 +1,366 @@
+package blockworld;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// The outcome of one search: the counters of the search analysis and the moves of the solution found
+// (or, if the search stopped without a solution, the moves of the closest state found).
+// The moves are kept as one byte each (their index in MOVES), so a result is cheap to keep even for batches of searches,
+// and the human-readable report is only built when toReport() (or writeReport(), streaming it) is called.
+public class SearchResult {
+
+	// The moves, in the order of their codes.
+	private final static char[] MOVES = {'U', 'L', 'D', 'R'};
+
+	// How a search ended.
+	public enum Termination {
+
+		SOLVED("a solution was found"),
+		NO_SOLUTION("the search space was exhausted"),
+		NODE_BUDGET("the node budget was reached"),
+		FRINGE_BUDGET("the fringe budget was reached"),
+		DEADLINE("the time limit was reached"),
+		CANCELLED("the search was cancelled"),
+		OUT_OF_MEMORY("the heap ran out of memory");
+
+		private final String description;
+
+		private Termination(String description) {
+
+			this.description = description;
+		}
+
+		public String getDescription() {
+
+			return description;
+		}
+	}
+
+	private final char strategy;
+	private final String strategyName;
+
+	// The initial state the moves start from (only used to render the full states of the solution).
+	private final SearchState initial;
+
+	private final Termination termination;
+
+	// The moves from the initial state to the solution (or to the closest state found, if the search was not solved).
+	private final byte[] moves;
+
+	// The Manhattan distance to the solution of the state reached by the moves (0 for a solution).
+	private final int distanceToSolution;
+
+	private final long nodesCreated;       // time complexity (number of nodes created)
+	private final long peakNodes;          // space complexity (maximum number of nodes in memory)
+	private final long peakLiveNodes;      // maximum number of nodes in memory which could still lead to a solution (see NodeStore.release)
+	private final long duplicatesPruned;   // generated nodes pruned as duplicates (graph search and bidirectional BFS)
+	private final long wallTimeNanos;      // the time spent searching (the report is not included)
+
+	// The settings of the search, as shown in the report.
+	private final boolean graphSearch;
+	private final int parallelism;
+	private final String heuristic;
+
+	// The bounds and node counts of every IDA* iteration (empty for the other strategies).
+	private final String iterations;
+
+	// Whether the result was found in a SolutionCache rather than searched now (the wall time is then the one of the original search).
+	private final boolean cached;
+
+
+	SearchResult(char strategy, String strategyName, SearchState initial, Termination termination, byte[] moves, int distanceToSolution,
+			long nodesCreated, long peakNodes, long peakLiveNodes, long duplicatesPruned, long wallTimeNanos, boolean graphSearch, int parallelism,
+			String heuristic, String iterations) {
+
+		this(strategy, strategyName, initial, termination, moves, distanceToSolution, nodesCreated, peakNodes, peakLiveNodes,
+				duplicatesPruned, wallTimeNanos, graphSearch, parallelism, heuristic, iterations, false);
+	}
+
+
+	private SearchResult(char strategy, String strategyName, SearchState initial, Termination termination, byte[] moves, int distanceToSolution,
+			long nodesCreated, long peakNodes, long peakLiveNodes, long duplicatesPruned, long wallTimeNanos, boolean graphSearch, int parallelism,
+			String heuristic, String iterations, boolean cached) {
+
+		this.strategy = strategy;
+		this.strategyName = strategyName;
+		this.initial = initial;
+		this.termination = termination;
+		this.moves = moves;
+		this.distanceToSolution = distanceToSolution;
+		this.nodesCreated = nodesCreated;
+		this.peakNodes = peakNodes;
+		this.peakLiveNodes = peakLiveNodes;
+		this.duplicatesPruned = duplicatesPruned;
+		this.wallTimeNanos = wallTimeNanos;
+		this.graphSearch = graphSearch;
+		this.parallelism = parallelism;
+		this.heuristic = heuristic;
+		this.iterations = iterations;
+		this.cached = cached;
+	}
+
+
+	// The same result, marked as read from a SolutionCache.
+	SearchResult asCached() {
+
+		return cached ? this : new SearchResult(strategy, strategyName, initial, termination, moves, distanceToSolution, nodesCreated,
+				peakNodes, peakLiveNodes, duplicatesPruned, wallTimeNanos, graphSearch, parallelism, heuristic, iterations, true);
+	}
+
+
+	// The code of a move, as kept in the move sequence.
+	static byte encodeMove(char direction) {
+
+		switch(direction) {
+
+			case 'U': {
+				return 0;
+			}
+			case 'L': {
+				return 1;
+			}
+			case 'D': {
+				return 2;
+			}
+			case 'R': {
+				return 3;
+			}
+			default: {
+
+				throw new UnsupportedOperationException("Unrecognized direction: " + direction);
+			}
+		}
+	}
+
+
+	public char getStrategy() {
+
+		return strategy;
+	}
+
+
+	public String getStrategyName() {
+
+		return strategyName;
+	}
+
+
+	// The dimension of the grid searched.
+	public int getDimension() {
+
+		return initial.getDimension();
+	}
+
+
+	public Termination getTermination() {
+
+		return termination;
+	}
+
+
+	public boolean isSolved() {
+
+		return termination == Termination.SOLVED;
+	}
+
+
+	// The number of moves of the solution (-1 if no solution was found).
+	public int getSolutionDepth() {
+
+		return isSolved() ? moves.length : -1;
+	}
+
+
+	// The number of moves (of the solution or of the path to the closest state found).
+	public int getMoveCount() {
+
+		return moves.length;
+	}
+
+
+	// The i-th move ('U', 'L', 'D' or 'R').
+	public char getMove(int i) {
+
+		return MOVES[moves[i]];
+	}
+
+
+	// A copy of the encoded moves (0 - U, 1 - L, 2 - D, 3 - R).
+	public byte[] getMoves() {
+
+		return moves.clone();
+	}
+
+
+	public int getDistanceToSolution() {
+
+		return distanceToSolution;
+	}
+
+
+	public long getNodesCreated() {
+
+		return nodesCreated;
+	}
+
+
+	public long getPeakNodes() {
+
+		return peakNodes;
+	}
+
+
+	public long getPeakLiveNodes() {
+
+		return peakLiveNodes;
+	}
+
+
+	public long getDuplicatesPruned() {
+
+		return duplicatesPruned;
+	}
+
+
+	public long getWallTimeNanos() {
+
+		return wallTimeNanos;
+	}
+
+
+	public boolean isGraphSearch() {
+
+		return graphSearch;
+	}
+
+
+	public int getParallelism() {
+
+		return parallelism;
+	}
+
+
+	// The heuristic of A*, IDA* and SMA* (null for the uninformed strategies).
+	public String getHeuristic() {
+
+		return heuristic;
+	}
+
+
+	// The bounds and node counts of every IDA* iteration (empty for the other strategies).
+	public String getIterations() {
+
+		return iterations;
+	}
+
+
+	// Whether the result was read from a SolutionCache (its wall time is then the one of the original search).
+	public boolean isCached() {
+
+		return cached;
+	}
+
+
+	// Renders the report of the search: the solution (as moves or as full states) followed by the search analysis.
+	public String toReport(boolean solutionFullStateDisplay) {
+
+		StringBuilder report = new StringBuilder();
+
+		try {
+			writeReport(report, solutionFullStateDisplay);
+		} catch (IOException e) {
+			// a StringBuilder never fails.
+			throw new UncheckedIOException(e);
+		}
+
+		return report.toString();
+	}
+
+
+	// Writes the report to the output as it is rendered: the states of a full display are written one at a time (and a row at a time,
+	// from a single row buffer) while the moves are replayed, so a deep solution is never held in memory as text.
+	public void writeReport(Appendable report, boolean solutionFullStateDisplay) throws IOException {
+
+		if (termination == Termination.SOLVED) {
+
+			report.append("The " + strategyName + " was completed!\n\nHere is the first solution found:\n");
+		}
+		else {
+
+			report.append("The " + strategyName + " stopped without a solution: " + termination.getDescription() + "!\n\n");
+			report.append("Here is the closest state found (Manhattan distance " + distanceToSolution + "):\n");
+		}
+
+		if (!solutionFullStateDisplay) {
+
+			report.append("=================================\n\nInit");
+
+			for (byte move : moves) {
+
+				report.append(" -> ").append(MOVES[move]);
+			}
+
+			report.append("\n\n=================================\n");
+		}
+
+		else {
+
+			report.append("=================================\n\n");
+
+			// The states are rendered by replaying the moves on a copy of the initial state.
+			SearchState state = initial.clone();
+			char[] row = new char[SearchState.rowLength(state.getDimension())];
+
+			state.appendState(report, row);
+			report.append("\n=================================\n\n");
+
+			for (byte move : moves) {
+
+				state.move(MOVES[move]);
+				state.appendState(report, row);
+				report.append("\n=================================\n\n");
+			}
+		}
+
+		report.append("\n");
+
+		if (iterations.length() > 0) {
+
+			report.append("Iterations (IDA*)\n");
+			report.append("----------------\n");
+			report.append(iterations);
+			report.append("\n");
+		}
+
+		report.append("Search Analysis\n");
+		report.append("----------------\n");
+		report.append("Search method used: " + strategyName + (graphSearch ? " (Graph Search)" : "")
+				+ (strategy == 'B' && parallelism > 1 ? " (Parallel, " + parallelism + " threads)" : "") + "\n");
+		if (heuristic != null) {
+			report.append("Heuristic used: " + heuristic + "\n");
+		}
+		if (graphSearch || strategy == 'T') {
+			report.append("Duplicates pruned (Nodes reached before): " + duplicatesPruned + "\n");
+		}
+		report.append("Wall time (ms): " + (wallTimeNanos / 1000000) + (cached ? " (cached result, the time of the original search)" : "") + "\n");
+		report.append("Time complexity (Nodes created): " + nodesCreated + "\n");
+		report.append("Space complexity (Max Nodes ever in the fringe): " + peakNodes + "\n");
+		if (peakLiveNodes < peakNodes) {
+			report.append("Live nodes (Max Nodes which could still lead to a solution): " + peakLiveNodes + "\n");
+		}
+		if (isSolved()) {
+			report.append("Depth of the solution: " + moves.length + "\n");
+		}
+		else {
+			report.append("Depth of the closest state found: " + moves.length + "\n");
+		}
+	}
+
+
+	@Override
+	public String toString() {
+
+		return toReport(false);
+	}
+
+}
@@ -0,0 +1,599 @@
+package blockworld;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+public class SearchState implements Cloneable, Serializable {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 5786043818477755800L;
+	
+	private final static char AGENT = '\u263B';
+	
+	// The largest grid supported (its 31 letters are A to Z, then a to e, see letterSymbol).
+	public final static int MAX_DIMENSION = 32;
+	
+	// The version of the packed form (see writePacked). It needs to be bumped whenever the layout changes,
+	// so the packed states persisted with the previous layout (see SolutionCache) are not used anymore.
+	public final static int PACKED_VERSION = 2;
+
+	// The state is fully determined by the agent cell and the d-1 letter cells (a cell is row * d + column).
+	// Field 0 holds the agent cell and field i holds the cell of the letter i - 1 (see letterSymbol), each field having bitsPerCell(d) bits.
+	// While all the fields fit, they are packed in a single long; above that, they are packed in several longs (see fieldBits),
+	// so a state takes a few words whatever the size of the grid. The grid itself is only rendered when getState() is called for display.
+	private long packed;
+	private long[] words;
+	
+	// The length of a grid's row/column.
+	private int dimension;
+	
+	// The distance between each letter's current position and its desired position.
+	private int distanceToSolution;
+	
+	// Agent position (row and column)
+	private int agentR;
+	private int agentC;
+	
+	private char moveToState;
+	
+	// The field of the letter on each cell (0 for an empty cell or the agent cell), so a move finds the letter it displaces in O(1).
+	// It is only built for a state that is moved or expanded (see occupants), kept up to date by move and copied by clone,
+	// while a child made by deriveChild starts without one (most children are stored and never expanded).
+	private transient byte[] occupants;
+	
+	// Setting up the Grid with the default start state.
+	public SearchState(int d) {
+		
+		initGrid(d);
+
+	}
+	
+	// Setting up the Grid with a specified start state.
+	public SearchState(int d, int agentRowPos, int agentColPos, int... letterPositions) {
+		
+		initGridWithPos(d, agentRowPos, agentColPos, letterPositions);
+	}
+	
+	// An empty state, filled in by readPacked.
+	private SearchState() {
+		
+	}
+	
+	// Copying a parent state field by field (used instead of a serialization round trip when generating children).
+	private SearchState(SearchState parent, boolean withOccupants) {
+		
+		packed = parent.packed;
+		if (parent.words != null) {
+			words = parent.words.clone();
+		}
+		
+		dimension = parent.dimension;
+		distanceToSolution = parent.distanceToSolution;
+		agentR = parent.agentR;
+		agentC = parent.agentC;
+		moveToState = parent.moveToState;
+		
+		if (withOccupants && parent.occupants != null) {
+			occupants = parent.occupants.clone();
+		}
+	}
+	
+	
+	// The number of bits needed to store a cell index of a d x d grid.
+	private static int bitsPerCell(int d) {
+		
+		return Math.max(1, 32 - Integer.numberOfLeadingZeros(d * d - 1));
+	}
+	
+	// If the agent cell and all the letter cells of a d x d grid fit in a single long.
+	private static boolean fitsInLong(int d) {
+		
+		return d * bitsPerCell(d) <= Long.SIZE;
+	}
+	
+	// The bits of a field when the fields take several longs: a whole byte up to 16 x 16 (the layout of the packed states written
+	// to traces and caches before larger grids were supported), and the bits of a cell index above that (9 or 10 bits).
+	// A field never spans two longs.
+	private static int fieldBits(int d) {
+		
+		return Math.max(Byte.SIZE, bitsPerCell(d));
+	}
+	
+	private static int fieldsPerWord(int d) {
+		
+		return Long.SIZE / fieldBits(d);
+	}
+	
+	private void initStorage(int d) {
+		
+		if (d < 1) {
+			
+			throw new IllegalArgumentException("The grid dimension needs to be at least 1.");
+		}
+		if (d > MAX_DIMENSION) {
+			
+			throw new IllegalArgumentException("Grids larger than " + MAX_DIMENSION + " x " + MAX_DIMENSION + " are not supported.");
+		}
+		
+		dimension = d;
+		packed = 0;
+		words = fitsInLong(d) ? null : new long[packedWords(d)];
+	}
+	
+	private int getCell(int field) {
+		
+		if (words == null) {
+			
+			int bits = bitsPerCell(dimension);
+			return (int) (packed >>> (field * bits)) & ((1 << bits) - 1);
+		}
+		
+		int bits = fieldBits(dimension);
+		int perWord = Long.SIZE / bits;
+		
+		return (int) (words[field / perWord] >>> ((field % perWord) * bits)) & ((1 << bits) - 1);
+	}
+	
+	private void setCell(int field, int cell) {
+		
+		if (words == null) {
+			
+			int bits = bitsPerCell(dimension);
+			long mask = ((1L << bits) - 1) << (field * bits);
+			packed = (packed & ~mask) | ((long) cell << (field * bits));
+		}
+		else {
+			
+			int bits = fieldBits(dimension);
+			int perWord = Long.SIZE / bits;
+			int shift = (field % perWord) * bits;
+			long mask = ((1L << bits) - 1) << shift;
+			
+			words[field / perWord] = (words[field / perWord] & ~mask) | ((long) cell << shift);
+		}
+	}
+	
+	// The index of the letters by cell, built from the packed fields the first time it is needed.
+	private byte[] occupants() {
+		
+		if (occupants == null) {
+			
+			occupants = new byte[dimension * dimension];
+			for (int i = 1; i < dimension; i++) {
+				occupants[getCell(i)] = (byte) i;
+			}
+		}
+		
+		return occupants;
+	}
+	
+	// The Manhattan distance of a letter (0 for 'A') placed on the given cell to its desired position.
+	private int letterDistance(int letter, int cell) {
+		
+		return Math.abs(cell / dimension - letter - 1) + Math.abs(cell % dimension - 1);
+	}
+	
+	private void initGrid(int d) {
+		
+		initStorage(d);
+
+		// Populate the grid on the last row with as many letters as possible
+		for (int i = 0; i < d - 1; i++) {
+			
+			setCell(i + 1, (d-1) * d + i);
+			
+			// distance on row + column from the solution.
+			distanceToSolution += Math.abs((d-1) - i - 1) + Math.abs(i-1);
+
+		}
+		
+		// The agent will be placed in the bottom right corner
+		setCell(0, (d-1) * d + (d-1));
+		agentR = agentC = d-1;
+
+	}
+	
+	private void initGridWithPos(int d, int agentRowPos, int agentColPos, int... positions) {
+		
+			
+			if (positions.length != (d-1) * 2) {
+				
+				throw new IllegalArgumentException("Each letter needs to have 2 coordinates, making a total of: " + (d-1)*2 + " numbers needed as arguments.");
+			}
+			
+			else {
+				
+				agentR = agentRowPos;
+				agentC = agentColPos;
+				
+				if (agentR<0 || agentR >= d || agentC <0 || agentC >= d) {
+					
+					throw new IllegalArgumentException("Agent position specified is out of the grid's bounds.");
+
+				}
+				else {
+
+					initStorage(d);
+					
+					// The agent will occupy field 0
+					setCell(0, agentR * d + agentC);
+					
+					for (int i = 0; i < positions.length; i += 2) {
+						
+						int curLetterR = positions[i];
+						int curLetterC = positions[i+1];
+						
+						if (curLetterR<0 || curLetterR >= d || curLetterC<0 || curLetterC >= d || isOccupied(curLetterR * d + curLetterC, i/2 + 1)) {
+							
+							throw new IllegalArgumentException("A position specified is out of the grid's bounds or it's overlapping the agent or another letter.");
+						}
+						else {
+							
+							setCell(i/2 + 1, curLetterR * d + curLetterC);
+							distanceToSolution += Math.abs(curLetterR - i/2 - 1) + Math.abs(curLetterC - 1);
+						}
+					}
+				
+				}
+			}
+
+			
+		
+	}
+	
+	// If the cell is taken by one of the first fields (the agent and the letters placed before it).
+	private boolean isOccupied(int cell, int fields) {
+		
+		for (int i = 0; i < fields; i++) {
+			if (getCell(i) == cell) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	
+	public boolean canMove(char direction) {
+		
+		// Row/Column move
+		int Rmove = 0;
+		int Cmove = 0;
+		
+		// The length of a table's row/column
+		int length = dimension;
+		
+		switch(direction) {
+			
+			case 'U': {
+				Rmove --;
+				break;
+			}
+			case 'D': {
+				Rmove ++;
+				break;
+			}
+			case 'L': {
+				Cmove --;
+				break;
+			}
+			case 'R': {
+				Cmove ++;
+				break;
+			}
+			default: {
+				
+				throw new UnsupportedOperationException("Unrecognized direction: " + direction);
+			}
+			
+		}
+		
+		//  Check to see if the move is legal.
+		if (agentR + Rmove < 0 || agentR + Rmove >= length || agentC + Cmove < 0 || agentC + Cmove >= length) {
+			
+			return false;
+		}
+		
+		return true;
+	}
+	
+	
+	public void move(char direction) {
+		
+		int agentCell = agentR * dimension + agentC;
+		int targetCell = targetCell(direction);
+		
+		byte[] index = occupants();
+		int letterField = index[targetCell];
+		
+		swap(direction, agentCell, targetCell, letterField);
+		
+		if (letterField > 0) {
+			
+			index[agentCell] = (byte) letterField;
+			index[targetCell] = 0;
+		}
+	}
+	
+	
+	// The cell the agent reaches by moving in the given direction.
+	private int targetCell(char direction) {
+		
+		// Row/Column move
+		int Rmove = 0;
+		int Cmove = 0;
+		
+		
+		switch(direction) {
+			
+			case 'U': {
+				Rmove --;
+				break;
+			}
+			case 'D': {
+				Rmove ++;
+				break;
+			}
+			case 'L': {
+				Cmove --;
+				break;
+			}
+			case 'R': {
+				Cmove ++;
+				break;
+			}
+			default: {
+				
+				throw new UnsupportedOperationException("Unrecognized direction: " + direction);
+			}
+			
+		}
+		
+		return (agentR + Rmove) * dimension + agentC + Cmove;
+	}
+	
+	
+	// Moves the agent from its cell to the target cell; the letter on the target cell (field letterField, if above 0) takes the place of the agent.
+	private void swap(char direction, int agentCell, int targetCell, int letterField) {
+		
+		if (letterField > 0) {
+			
+			setCell(letterField, agentCell);
+			distanceToSolution += letterDistance(letterField - 1, agentCell) - letterDistance(letterField - 1, targetCell);
+		}
+		
+		setCell(0, targetCell);
+		
+		// changing the agent position variables to reflect the change.
+		agentR = targetCell / dimension;
+		agentC = targetCell % dimension;
+		
+		// the last move made for reaching this state.
+		moveToState = direction;
+	}
+	
+	
+	// Will undo move(direction): the agent steps back and the letter it displaced (if any) returns to its cell.
+	// @param previousMove : the last move made for reaching the state before move(direction) was performed.
+	public void unmove(char direction, char previousMove) {
+		
+		move(getOppositeMove(direction));
+		
+		moveToState = previousMove;
+	}
+	
+	
+	// The move that cancels the given one.
+	public static char getOppositeMove(char direction) {
+		
+		switch(direction) {
+			
+			case 'U': return 'D';
+			case 'D': return 'U';
+			case 'L': return 'R';
+			case 'R': return 'L';
+			default: {
+				
+				throw new UnsupportedOperationException("Unrecognized direction: " + direction);
+			}
+		}
+	}
+	
+	
+	// Every letter is in its desired position exactly when the sum of their Manhattan distances is 0.
+	public boolean checkSolution() {
+		
+		return distanceToSolution == 0;
+	}
+	
+	
+	// Will make a deep clone of this object.
+	public SearchState clone() {
+		
+		return new SearchState(this, true);
+	}
+	
+	
+	// Will create the child state reached by moving the agent in the given direction (copy and move in one step).
+	// The direction is expected to be legal for this state (see canMove).
+	public SearchState deriveChild(char direction) {
+		
+		int agentCell = agentR * dimension + agentC;
+		int targetCell = targetCell(direction);
+		
+		// The letter displaced is found in the index of this state, the child is only copied and swapped.
+		SearchState child = new SearchState(this, false);
+		child.swap(direction, agentCell, targetCell, occupants()[targetCell]);
+		
+		return child;
+	}
+	
+	
+	// Will return the Manhattan distance to the solution of this SearchState
+	public int getDistanceToSolution() {
+		
+		
+		return distanceToSolution;
+	}
+	
+	
+	public String getState() {
+		
+	    try {
+	    	
+	    	StringBuilder str = new StringBuilder();
+	    	appendState(str, null);
+	        
+	        return str.toString();
+
+	    } catch(Exception e) {
+	    	
+	    	return "Matrix is Empty!!!";
+	    }
+	
+	}
+	
+	
+	// The number of chars of a rendered row of a d x d grid: "|  " + "X  " per cell + "|\n".
+	public static int rowLength(int d) {
+		
+		return 3 * d + 5;
+	}
+	
+	
+	// Will write the grid (as getState() renders it) to the output, one row at a time, without building any String.
+	// The row buffer (of at least rowLength(d) chars) can be reused for every state written; if it is null or too short, one is allocated.
+	public void appendState(Appendable out, char[] row) throws IOException {
+		
+		if (row == null || row.length < rowLength(dimension)) {
+			
+			row = new char[rowLength(dimension)];
+		}
+		
+		int length = rowLength(dimension);
+		
+		for (int r = 0; r < dimension; r++) {
+			
+			// An empty row, then the letters and the agent of this row are put in their cells.
+			row[0] = '|';
+			for (int i = 1; i < length - 2; i++) {
+				row[i] = ' ';
+			}
+			for (int c = 0; c < dimension; c++) {
+				row[3 + 3 * c] = '.';
+			}
+			row[length - 2] = '|';
+			row[length - 1] = '\n';
+			
+			for (int i = 1; i < dimension; i++) {
+				
+				int cell = getCell(i);
+				if (cell / dimension == r) {
+					row[3 + 3 * (cell % dimension)] = letterSymbol(i - 1);
+				}
+			}
+			if (agentR == r) {
+				row[3 + 3 * agentC] = AGENT;
+			}
+			
+			if (out instanceof Writer) {
+				((Writer) out).write(row, 0, length);
+			}
+			else if (out instanceof StringBuilder) {
+				((StringBuilder) out).append(row, 0, length);
+			}
+			else {
+				out.append(CharBuffer.wrap(row, 0, length));
+			}
+		}
+	}
+	
+	
+	public char getLastMove() {
+		
+		return moveToState;
+	}
+	
+	
+	public int getDimension() {
+		
+		return dimension;
+	}
+	
+	
+	// The cell (row * d + column) of the agent.
+	public int getAgentCell() {
+		
+		return agentR * dimension + agentC;
+	}
+	
+	
+	// The cell (row * d + column) of a letter (0 for 'A').
+	public int getLetterCell(int letter) {
+		
+		return getCell(letter + 1);
+	}
+	
+	
+	// The symbol of a letter (0 for 'A'): A to Z, then a to e on the largest grids.
+	public static char letterSymbol(int letter) {
+		
+		return (char) (letter < 26 ? 'A' + letter : 'a' + letter - 26);
+	}
+	
+	
+	// The number of longs needed to hold the packed form of a d x d state (see writePacked).
+	public static int packedWords(int d) {
+		
+		return fitsInLong(d) ? 1 : (d + fieldsPerWord(d) - 1) / fieldsPerWord(d);
+	}
+	
+	
+	// Will write the packed form of this state (agent and letter cells) into packedWords(d) longs, starting at the offset.
+	// Two states have the same packed form exactly when they have the same configuration.
+	public void writePacked(long[] destination, int offset) {
+		
+		if (words == null) {
+			
+			destination[offset] = packed;
+			return;
+		}
+		
+		System.arraycopy(words, 0, destination, offset, words.length);
+	}
+	
+	
+	// Will rebuild a d x d state from its packed form (as written by writePacked), with the given last move.
+	public static SearchState readPacked(int d, long[] source, int offset, char lastMove) {
+		
+		SearchState state = new SearchState();
+		state.initStorage(d);
+		
+		if (state.words == null) {
+			
+			state.packed = source[offset];
+		}
+		else {
+			
+			System.arraycopy(source, offset, state.words, 0, state.words.length);
+		}
+		
+		int agent = state.getCell(0);
+		state.agentR = agent / d;
+		state.agentC = agent % d;
+		
+		for (int i = 1; i < d; i++) {
+			state.distanceToSolution += state.letterDistance(i - 1, state.getCell(i));
+		}
+		
+		state.moveToState = lastMove;
+		
+		return state;
+	}
+	
+	
+}
@@ -0,0 +1,231 @@
+package blockworld;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * A binary trace of the nodes a search goes through, written in place of the verbose text (see SearchTraceReader for replaying it).
+ * The search thread puts fixed-size records (node id, parent id, depth, move, kind and estimated distance) into a ring buffer,
+ * without locks or allocations: it is the only producer and a background writer thread is the only consumer, so the ring only needs
+ * the two counters (head and tail) to be published in order. The writer drains the ring into a file in large blocks.
+ * If the ring is full, the search waits for the writer, so no record is ever dropped.
+ *
+ * File layout (big-endian): the header (MAGIC, VERSION, the strategy, the dimension, the number of words of a packed state,
+ * the packed initial state and its last move), then 24-byte records: long id, long parent id, int depth, byte move, byte kind, short h.
+ */
+
+public class SearchTrace implements Closeable {
+
+	final static int MAGIC = 0x424C4B54; // "BLKT"
+	final static int VERSION = 1;
+
+	// The size of a record in the file.
+	final static int RECORD_BYTES = 24;
+
+	// The kinds of records: a node entered or expanded (the root has the parent id NO_PARENT),
+	// and the start of a depth-limited iteration, whose depth is the depth limit or the f-bound.
+	final static byte NODE = 0;
+	final static byte DEPTH_LIMIT = 1;
+	final static byte F_BOUND = 2;
+
+	public final static long NO_PARENT = -1;
+
+	// The number of records the ring can hold (a power of 2).
+	public final static int DEFAULT_CAPACITY = 1 << 16;
+
+	// The number of records the writer copies into the file at a time.
+	private final static int BLOCK_RECORDS = 1 << 12;
+
+	// The ring keeps a record as 3 longs: the id, the parent id and the rest packed as in the file (depth, move, kind, h).
+	private final long[] ring;
+	private final int mask;
+
+	// The number of records taken by the writer (head) and put by the search (tail).
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	// The last head seen by the search, so the shared counter is only read again when the ring looks full.
+	private long cachedHead;
+
+	private final FileChannel channel;
+	private final Thread writer;
+
+	private volatile boolean closed;
+	private volatile IOException failure;
+
+
+	public SearchTrace(File file, char strategy, SearchState initial) throws IOException {
+
+		this(file, strategy, initial, DEFAULT_CAPACITY);
+	}
+
+
+	public SearchTrace(File file, char strategy, SearchState initial, int capacity) throws IOException {
+
+		if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+
+			throw new IllegalArgumentException("The capacity of the ring needs to be a power of 2.");
+		}
+
+		this.ring = new long[capacity * 3];
+		this.mask = capacity - 1;
+
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		try {
+			writeHeader(strategy, initial);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+
+		this.writer = new Thread(this::drain, "search-trace-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+
+	// Records a node. Only the search thread may call it.
+	public void node(long id, long parent, int depth, char move, int h) {
+
+		put(id, parent, depth, move, NODE, h);
+	}
+
+
+	// Records the start of a depth-limited iteration (the bound is a depth limit or an f-bound).
+	public void iteration(long rootId, byte kind, int bound) {
+
+		put(rootId, NO_PARENT, bound, (char) 0, kind, 0);
+	}
+
+
+	private void put(long id, long parent, int depth, char move, byte kind, int h) {
+
+		long position = tail.get();
+
+		// The ring is full: the search waits for the writer.
+		while (position - cachedHead > mask) {
+
+			if (failure != null) {
+
+				throw new UncheckedIOException("The search trace could not be written.", failure);
+			}
+
+			cachedHead = head.get();
+
+			if (position - cachedHead > mask) {
+				Thread.yield();
+			}
+		}
+
+		int slot = (int) (position & mask) * 3;
+		ring[slot] = id;
+		ring[slot + 1] = parent;
+		ring[slot + 2] = ((long) depth << 32) | ((move & 0xFFL) << 24) | ((kind & 0xFFL) << 16) | (h & 0xFFFFL);
+
+		// The record is published (after it was written) without a full fence.
+		tail.lazySet(position + 1);
+	}
+
+
+	// The writer thread: copies the records published so far into the file, until the trace is closed and the ring is empty.
+	private void drain() {
+
+		ByteBuffer block = ByteBuffer.allocateDirect(RECORD_BYTES * BLOCK_RECORDS);
+
+		try {
+			while (true) {
+
+				long from = head.get();
+				long to = tail.get();
+
+				if (from == to) {
+
+					if (closed && tail.get() == from) {
+						break;
+					}
+
+					LockSupport.parkNanos(100000);
+					continue;
+				}
+
+				for (long position = from; position < to; position++) {
+
+					int slot = (int) (position & mask) * 3;
+					block.putLong(ring[slot]).putLong(ring[slot + 1]).putLong(ring[slot + 2]);
+
+					if (! block.hasRemaining()) {
+
+						flush(block);
+					}
+
+					// The slots are handed back as soon as they are copied.
+					head.lazySet(position + 1);
+				}
+
+				flush(block);
+			}
+
+		} catch (IOException e) {
+
+			failure = e;
+		}
+	}
+
+
+	private void flush(ByteBuffer block) throws IOException {
+
+		block.flip();
+		while (block.hasRemaining()) {
+			channel.write(block);
+		}
+		block.clear();
+	}
+
+
+	private void writeHeader(char strategy, SearchState initial) throws IOException {
+
+		int words = SearchState.packedWords(initial.getDimension());
+		long[] packed = new long[words];
+		initial.writePacked(packed, 0);
+
+		ByteBuffer header = ByteBuffer.allocate(4 + 4 + 2 + 4 + 4 + words * Long.BYTES + 2);
+		header.putInt(MAGIC).putInt(VERSION).putChar(strategy).putInt(initial.getDimension()).putInt(words);
+		for (long word : packed) {
+			header.putLong(word);
+		}
+		header.putChar(initial.getLastMove());
+
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+	}
+
+
+	// Waits for the writer to write every record and closes the file.
+	@Override
+	public void close() throws IOException {
+
+		closed = true;
+		LockSupport.unpark(writer);
+
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			channel.close();
+		}
+
+		if (failure != null) {
+
+			throw failure;
+		}
+	}
+
+}
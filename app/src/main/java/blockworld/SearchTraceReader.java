@@ -0,0 +1,204 @@
+package blockworld;
+
+import java.io.*;
+import java.util.*;
+
+/*
+ * Replays a SearchTrace file as the text the search would have printed in verbose mode (displayAll),
+ * or lists its records one per line (id, parent id, depth, move, kind and estimated distance).
+ * The states are not in the trace: they are rebuilt from the initial state by following the moves of the records,
+ * keeping the state of every node expanded (BFS and A*, whose nodes may be the parent of any later node)
+ * or only the states of the current path (the depth-limited searches of DFS, IDS and IDA*).
+ *
+ * Usage: java -cp app/target/classes blockworld.SearchTraceReader [-records] <trace file>
+ */
+
+public class SearchTraceReader {
+
+	private final static String SEPARATOR = "=======================================\n";
+
+
+	public static void main(String[] args) throws IOException {
+
+		boolean records = args.length == 2 && args[0].equals("-records");
+
+		if (args.length != (records ? 2 : 1)) {
+
+			System.err.println("Usage: java blockworld.SearchTraceReader [-records] <trace file>");
+			return;
+		}
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+
+		if (records) {
+			listRecords(new File(args[1]), out);
+		}
+		else {
+			replay(new File(args[0]), out);
+		}
+
+		out.flush();
+	}
+
+
+	// Writes the verbose text of the search traced in the file.
+	public static void replay(File file, Appendable out) throws IOException {
+
+		try (DataInputStream in = open(file)) {
+
+			char strategy = in.readChar();
+			SearchState initial = readInitialState(in);
+
+			boolean depthLimited = strategy == 'D' || strategy == 'I' || strategy == 'F';
+
+			// BFS and A*: the states of the nodes expanded, by id. Depth-limited searches: the states of the current path, by depth.
+			Map<Long, SearchState> expanded = new HashMap<Long, SearchState>();
+			List<SearchState> path = new ArrayList<SearchState>();
+
+			long[] record = new long[3];
+			while (readRecord(in, record)) {
+
+				int depth = (int) (record[2] >> 32);
+				char move = (char) ((record[2] >>> 24) & 0xFF);
+				byte kind = (byte) (record[2] >>> 16);
+
+				if (kind != SearchTrace.NODE) {
+
+					out.append((kind == SearchTrace.F_BOUND ? "f-bound: " : "Depth limit: ") + depth + "\n");
+					out.append("---------------------------------------\n\n");
+					out.append("The Initial State is:\n\n" + initial.getState() + "\n");
+					out.append("Current Node Depth: 0\n\n");
+					out.append(SEPARATOR + "\n");
+
+					path.clear();
+					path.add(initial);
+					continue;
+				}
+
+				SearchState parent;
+				SearchState current;
+
+				if (depthLimited) {
+
+					parent = path.get(depth - 1);
+					current = parent.deriveChild(move);
+
+					if (depth == path.size()) {
+						path.add(current);
+					}
+					else {
+						path.set(depth, current);
+					}
+				}
+				else {
+
+					parent = record[1] == SearchTrace.NO_PARENT ? null : expanded.get(record[1]);
+					current = parent == null ? initial : parent.deriveChild(move);
+					expanded.put(record[0], current);
+				}
+
+				appendNode(out, strategy == 'A', parent, current, depth);
+			}
+		}
+	}
+
+
+	// Writes every record of the trace on a line: id, parent id, depth (or bound), move, kind and estimated distance.
+	public static void listRecords(File file, Appendable out) throws IOException {
+
+		try (DataInputStream in = open(file)) {
+
+			char strategy = in.readChar();
+			readInitialState(in);
+
+			out.append("Trace of a (" + strategy + " Search)\n");
+			out.append("id\tparent\tdepth\tmove\tkind\th\n");
+
+			long[] record = new long[3];
+			while (readRecord(in, record)) {
+
+				char move = (char) ((record[2] >>> 24) & 0xFF);
+				byte kind = (byte) (record[2] >>> 16);
+
+				out.append(record[0] + "\t" + record[1] + "\t" + (int) (record[2] >> 32) + "\t" + (move == 0 ? "-" : String.valueOf(move)) + "\t"
+						+ (kind == SearchTrace.NODE ? "node" : kind == SearchTrace.F_BOUND ? "f-bound" : "depth-limit") + "\t" + (short) record[2] + "\n");
+			}
+		}
+	}
+
+
+	// The node as displayed by the verbose search (with the Manhattan distances for A*).
+	private static void appendNode(Appendable out, boolean distances, SearchState parent, SearchState current, int depth) throws IOException {
+
+		if (parent != null) {
+
+			out.append("From Parent on Depth " + (depth - 1) + (distances ? " with the Manhattan distance " + parent.getDistanceToSolution() : "") + ":\n\n" + parent.getState() + "\n");
+			out.append("By performing action : " + current.getLastMove() + (distances ? ", we reach a Manhattan distance of " + current.getDistanceToSolution() : "") + "\n");
+			out.append("We reached the Current State:\n\n" + current.getState() + "\n");
+		}
+		else {
+			out.append("The Initial State is:\n\n" + current.getState() + "\n");
+		}
+		out.append("Current Node Depth: " + depth + "\n\n");
+		out.append(SEPARATOR + "\n");
+	}
+
+
+	// Opens the trace and checks its header, up to the strategy.
+	private static DataInputStream open(File file) throws IOException {
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+
+		try {
+			if (in.readInt() != SearchTrace.MAGIC) {
+
+				throw new IOException(file + " is not a search trace.");
+			}
+
+			int version = in.readInt();
+			if (version != SearchTrace.VERSION) {
+
+				throw new IOException("Unsupported search trace version: " + version);
+			}
+
+		} catch (IOException e) {
+
+			in.close();
+			throw e;
+		}
+
+		return in;
+	}
+
+
+	private static SearchState readInitialState(DataInputStream in) throws IOException {
+
+		int dimension = in.readInt();
+		long[] packed = new long[in.readInt()];
+
+		for (int w = 0; w < packed.length; w++) {
+			packed[w] = in.readLong();
+		}
+
+		return SearchState.readPacked(dimension, packed, 0, in.readChar());
+	}
+
+
+	// Reads the next record into the 3 longs (id, parent id and the packed rest), returning false at the end of the trace.
+	private static boolean readRecord(DataInputStream in, long[] record) throws IOException {
+
+		try {
+			record[0] = in.readLong();
+
+		} catch (EOFException e) {
+
+			return false;
+		}
+
+		record[1] = in.readLong();
+		record[2] = in.readLong();
+
+		return true;
+	}
+
+}
@@ -0,0 +1,376 @@
+package blockworld;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/*
+ * A persistent cache of search results, keyed by the strategy, the settings changing the result (see BlockworldPuzzleSolver)
+ * and the packed initial state (which includes the dimension).
+ * The results are kept in two tiers: the most recently used ones are kept decoded in memory (an LRU map of a fixed capacity)
+ * and every result ever stored is appended to a file as a length-prefixed record. When the cache is opened, the file is
+ * scanned once to index the offset of the latest record of every key, so a result which is not in memory is read back
+ * with a single positional read. A record written by an older version of its strategy (see TreeSearch.strategyVersion),
+ * with other fields (see RECORD_FORMAT) or with another layout of the packed states (see SearchState.PACKED_VERSION)
+ * is ignored, which invalidates the results cached before a change of the search. A result read back is marked as cached
+ * (see SearchResult.isCached), as its wall time is the one of the original search.
+ */
+
+public class SolutionCache implements Closeable {
+
+	// The file used when none is given (relative to the working directory).
+	public final static File DEFAULT_FILE = new File("SolutionCache", "solutions.bin");
+
+	// The default number of results kept in memory.
+	public final static int DEFAULT_CAPACITY = 1024;
+
+	private final static int MAGIC = 0x424C4B43; // "BLKC"
+	private final static int HEADER_BYTES = Integer.BYTES;
+
+	// The version of the fields of a record. It needs to be bumped whenever a field is added or changed.
+	private final static int RECORD_FORMAT = 1;
+
+	// A key: the strategy, the settings and the packed initial state.
+	private final static class Key {
+
+		private final char strategy;
+		private final String settings;
+		private final int dimension;
+		private final long[] packed;
+
+		private Key(char strategy, String settings, SearchState initial) {
+
+			this(strategy, settings, initial.getDimension(), new long[SearchState.packedWords(initial.getDimension())]);
+			initial.writePacked(packed, 0);
+		}
+
+		private Key(char strategy, String settings, int dimension, long[] packed) {
+
+			this.strategy = strategy;
+			this.settings = settings;
+			this.dimension = dimension;
+			this.packed = packed;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+
+			if (!(other instanceof Key)) {
+				return false;
+			}
+
+			Key key = (Key) other;
+			return strategy == key.strategy && dimension == key.dimension && settings.equals(key.settings) && Arrays.equals(packed, key.packed);
+		}
+
+		@Override
+		public int hashCode() {
+
+			return (31 * (31 * strategy + dimension) + settings.hashCode()) * 31 + Arrays.hashCode(packed);
+		}
+	}
+
+	private final FileChannel channel;
+
+	// The offset of the latest record of every key in the file.
+	private final Map<Key, Long> offsets = new HashMap<Key, Long>();
+
+	// The results used most recently (in access order), up to the capacity.
+	private final LinkedHashMap<Key, SearchResult> recent;
+
+	// The records of older strategy versions (or packed layouts, or unknown strategies) found in the file.
+	private int staleRecords;
+
+
+	public SolutionCache() throws IOException {
+
+		this(DEFAULT_FILE, DEFAULT_CAPACITY);
+	}
+
+
+	public SolutionCache(File file, int capacity) throws IOException {
+
+		if (capacity < 1) {
+
+			throw new IllegalArgumentException("The capacity of the cache needs to be at least 1.");
+		}
+
+		this.recent = new LinkedHashMap<Key, SearchResult>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, SearchResult> eldest) {
+
+				return size() > capacity;
+			}
+		};
+
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			load(file);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+
+	// The cached result of the strategy on the initial state with the given settings (null if there is none).
+	public synchronized SearchResult get(SearchState initial, char strategy, String settings) throws IOException {
+
+		Key key = new Key(strategy, settings, initial);
+		SearchResult result = recent.get(key);
+
+		if (result == null) {
+
+			Long offset = offsets.get(key);
+
+			if (offset == null) {
+				return null;
+			}
+
+			result = readRecord(offset).asCached();
+			recent.put(key, result);
+		}
+
+		return result;
+	}
+
+
+	// Stores the result of a search from the initial state (with the given settings), in memory and at the end of the file.
+	public synchronized void put(SearchState initial, String settings, SearchResult result) throws IOException {
+
+		Key key = new Key(result.getStrategy(), settings, initial);
+		result = result.asCached();
+
+		ByteBuffer record = ByteBuffer.wrap(encode(key, initial.getLastMove(), result));
+		long offset = channel.size();
+
+		// The whole record is written at once: if the process stops meanwhile, only the last record is cut short (and dropped on load).
+		while (record.hasRemaining()) {
+			channel.write(record, offset + record.position());
+		}
+
+		offsets.put(key, offset);
+		recent.put(key, result);
+	}
+
+
+	// The number of results which can be found in the cache.
+	public synchronized int size() {
+
+		return offsets.size();
+	}
+
+
+	// The records of older strategy versions (or packed layouts, or unknown strategies) found when the cache was opened (they are never used).
+	public int getStaleRecords() {
+
+		return staleRecords;
+	}
+
+
+	@Override
+	public synchronized void close() throws IOException {
+
+		channel.close();
+	}
+
+
+	// Indexes the records of the file (a new file gets its header). A record cut short at the end of the file is dropped.
+	private void load(File file) throws IOException {
+
+		long size = channel.size();
+
+		if (size == 0) {
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC);
+			header.flip();
+			channel.write(header, 0);
+			return;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+
+			if (size < HEADER_BYTES || in.readInt() != MAGIC) {
+
+				throw new IOException(file + " is not a solution cache.");
+			}
+
+			long offset = HEADER_BYTES;
+
+			while (offset + Integer.BYTES <= size) {
+
+				int length = in.readInt();
+
+				if (length < 0 || offset + Integer.BYTES + length > size) {
+					break;
+				}
+
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+				char strategy = record.readChar();
+				int version = record.readInt();
+
+				// A record of a strategy which is not recognized (a corrupt record) is as stale as one of an older version.
+				if (TreeSearch.isStrategy(strategy) && version == recordVersion(strategy)) {
+					offsets.put(readKey(record, strategy), offset);
+				}
+				else {
+					staleRecords++;
+				}
+
+				offset += Integer.BYTES + length;
+			}
+
+			// The cut record is overwritten by the next one.
+			if (offset < size) {
+				channel.truncate(offset);
+			}
+		}
+	}
+
+
+	private static Key readKey(DataInputStream record, char strategy) throws IOException {
+
+		String settings = record.readUTF();
+		int dimension = record.readInt();
+		long[] packed = new long[record.readInt()];
+
+		for (int w = 0; w < packed.length; w++) {
+			packed[w] = record.readLong();
+		}
+
+		return new Key(strategy, settings, dimension, packed);
+	}
+
+
+	// The version of the records of a strategy: the version of its search, then the version of the fields and the one of the packed layout of the keys.
+	static int recordVersion(char strategy) {
+
+		return TreeSearch.strategyVersion(strategy) << 16 | RECORD_FORMAT << 8 | SearchState.PACKED_VERSION;
+	}
+
+
+	// A record: its length, then the key (with the record version), the initial last move and every field of the result.
+	private static byte[] encode(Key key, char lastMove, SearchResult result) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(0);
+		out.writeChar(key.strategy);
+		out.writeInt(recordVersion(key.strategy));
+		out.writeUTF(key.settings);
+		out.writeInt(key.dimension);
+		out.writeInt(key.packed.length);
+		for (long word : key.packed) {
+			out.writeLong(word);
+		}
+		out.writeChar(lastMove);
+
+		out.writeUTF(result.getStrategyName());
+		out.writeUTF(result.getTermination().name());
+		out.writeInt(result.getDistanceToSolution());
+		out.writeLong(result.getNodesCreated());
+		out.writeLong(result.getPeakNodes());
+		out.writeLong(result.getPeakLiveNodes());
+		out.writeLong(result.getDuplicatesPruned());
+		out.writeLong(result.getWallTimeNanos());
+		out.writeBoolean(result.isGraphSearch());
+		out.writeInt(result.getParallelism());
+		out.writeBoolean(result.getHeuristic() != null);
+		if (result.getHeuristic() != null) {
+			out.writeUTF(result.getHeuristic());
+		}
+		writeString(out, result.getIterations());
+
+		byte[] moves = result.getMoves();
+		out.writeInt(moves.length);
+		out.write(moves);
+
+		out.flush();
+		byte[] record = bytes.toByteArray();
+		ByteBuffer.wrap(record).putInt(record.length - Integer.BYTES);
+
+		return record;
+	}
+
+
+	private SearchResult readRecord(long offset) throws IOException {
+
+		ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+		readFully(length, offset);
+
+		ByteBuffer payload = ByteBuffer.allocate(length.getInt(0));
+		readFully(payload, offset + Integer.BYTES);
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+
+		char strategy = in.readChar();
+		in.readInt();
+		Key key = readKey(in, strategy);
+		SearchState state = SearchState.readPacked(key.dimension, key.packed, 0, in.readChar());
+
+		String strategyName = in.readUTF();
+		SearchResult.Termination termination = SearchResult.Termination.valueOf(in.readUTF());
+		int distance = in.readInt();
+		long nodes = in.readLong();
+		long peak = in.readLong();
+		long live = in.readLong();
+		long duplicates = in.readLong();
+		long wallTime = in.readLong();
+		boolean graphSearch = in.readBoolean();
+		int parallelism = in.readInt();
+		String heuristic = in.readBoolean() ? in.readUTF() : null;
+		String iterations = readString(in);
+
+		byte[] moves = new byte[in.readInt()];
+		in.readFully(moves);
+
+		return new SearchResult(strategy, strategyName, state, termination, moves, distance, nodes, peak, live, duplicates, wallTime,
+				graphSearch, parallelism, heuristic, iterations);
+	}
+
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+
+		while (buffer.hasRemaining()) {
+
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+
+				throw new EOFException("A cached result is cut short.");
+			}
+		}
+	}
+
+
+	// A string of any length (writeUTF is limited to 65535 bytes).
+	private static void writeString(DataOutputStream out, String text) throws IOException {
+
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+
+	private static String readString(DataInputStream in) throws IOException {
+
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,222 @@
+package blockworld;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/*
+ * A breadth-first search frontier kept outside of the Java heap.
+ * Every node ever added is appended as a fixed-size record (packed state, parent index, depth and last move) to a log of segments,
+ * and the frontier is the part of the log between the head and the tail: nodes are taken in FIFO order by moving the head forward.
+ * The records before the head are kept, so the path to any node can still be rebuilt by following the parent indices.
+ * The first segments are allocated off-heap (direct buffers) up to a memory threshold; the next ones are memory-mapped files
+ * in a spill directory, so the operating system pages them out to disk and streams them back in as the head goes over them.
+ */
+
+public class SpillingFrontier implements Closeable {
+
+	// The default size of a segment.
+	public final static int DEFAULT_SEGMENT_BYTES = 1 << 24;
+
+	// The parent index of the root.
+	public final static long NO_PARENT = -1;
+
+	private final int dimension;
+	private final int words;
+
+	// Record layout: the packed state (words longs), the parent index (long), the depth (int) and the last move (byte).
+	private final int recordBytes;
+	private final int recordsPerSegment;
+	private final int segmentBytes;
+
+	// The off-heap bytes allowed before segments are spilled to files.
+	private final long memoryThreshold;
+	private final File spillDirectory;
+
+	private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+	private final List<File> spillFiles = new ArrayList<File>();
+	private long directBytes;
+
+	// The index of the next record to be taken and of the next record to be added.
+	private long head;
+	private long tail;
+
+	// Reused to pack the states being added and to read the states being taken.
+	private final long[] packed;
+
+
+	public SpillingFrontier(int d, int segmentBytes, long memoryThreshold, File spillDirectory) {
+
+		this.dimension = d;
+		this.words = SearchState.packedWords(d);
+		this.recordBytes = words * Long.BYTES + Long.BYTES + Integer.BYTES + 1;
+
+		if (segmentBytes < recordBytes) {
+
+			throw new IllegalArgumentException("A segment needs to hold at least one record of " + recordBytes + " bytes.");
+		}
+
+		this.recordsPerSegment = segmentBytes / recordBytes;
+		this.segmentBytes = recordsPerSegment * recordBytes;
+		this.memoryThreshold = memoryThreshold;
+		this.spillDirectory = spillDirectory;
+		this.packed = new long[words];
+	}
+
+
+	// Adds a node at the tail of the frontier, returning its index.
+	public long add(SearchState state, long parent, int depth) {
+
+		if (tail == (long) segments.size() * recordsPerSegment) {
+
+			segments.add(allocateSegment());
+		}
+
+		ByteBuffer segment = segments.get((int) (tail / recordsPerSegment));
+		int position = (int) (tail % recordsPerSegment) * recordBytes;
+
+		state.writePacked(packed, 0);
+		for (int w = 0; w < words; w++, position += Long.BYTES) {
+			segment.putLong(position, packed[w]);
+		}
+		segment.putLong(position, parent);
+		segment.putInt(position + Long.BYTES, depth);
+		segment.put(position + Long.BYTES + Integer.BYTES, (byte) state.getLastMove());
+
+		return tail++;
+	}
+
+
+	// Takes the node at the head of the frontier, returning its index (or -1 if the frontier is empty).
+	public long poll() {
+
+		return head < tail ? head++ : -1;
+	}
+
+
+	public boolean isEmpty() {
+
+		return head == tail;
+	}
+
+
+	// The number of nodes waiting in the frontier.
+	public long size() {
+
+		return tail - head;
+	}
+
+
+	// The number of nodes ever added (all of them are kept for rebuilding paths).
+	public long stored() {
+
+		return tail;
+	}
+
+
+	// The state of the node with the given index (rebuilt from its record).
+	public SearchState getState(long index) {
+
+		ByteBuffer segment = segment(index);
+		int position = position(index);
+
+		for (int w = 0; w < words; w++, position += Long.BYTES) {
+			packed[w] = segment.getLong(position);
+		}
+
+		return SearchState.readPacked(dimension, packed, 0, (char) segment.get(position + Long.BYTES + Integer.BYTES));
+	}
+
+
+	public long getParent(long index) {
+
+		return segment(index).getLong(position(index) + words * Long.BYTES);
+	}
+
+
+	public int getDepth(long index) {
+
+		return segment(index).getInt(position(index) + words * Long.BYTES + Long.BYTES);
+	}
+
+
+	public char getLastMove(long index) {
+
+		return (char) segment(index).get(position(index) + words * Long.BYTES + Long.BYTES + Integer.BYTES);
+	}
+
+
+	// The moves from the root to the node with the given index.
+	public char[] getPath(long index) {
+
+		char[] moves = new char[getDepth(index)];
+
+		for (long node = index; getParent(node) != NO_PARENT; node = getParent(node)) {
+
+			moves[getDepth(node) - 1] = getLastMove(node);
+		}
+
+		return moves;
+	}
+
+
+	// Releases the segments and deletes the spill files.
+	@Override
+	public void close() {
+
+		segments.clear();
+
+		for (File file : spillFiles) {
+
+			// A file still mapped may not be deleted on every platform; it is then removed when the JVM exits.
+			if (!file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+		spillFiles.clear();
+	}
+
+
+	private ByteBuffer segment(long index) {
+
+		return segments.get((int) (index / recordsPerSegment));
+	}
+
+
+	private int position(long index) {
+
+		return (int) (index % recordsPerSegment) * recordBytes;
+	}
+
+
+	// A new segment: off-heap while the memory threshold allows it, a memory-mapped spill file after that.
+	private ByteBuffer allocateSegment() {
+
+		if (directBytes + segmentBytes <= memoryThreshold) {
+
+			directBytes += segmentBytes;
+			return ByteBuffer.allocateDirect(segmentBytes).order(ByteOrder.nativeOrder());
+		}
+
+		try {
+
+			spillDirectory.mkdirs();
+			File file = File.createTempFile("frontier-", ".segment", spillDirectory);
+			spillFiles.add(file);
+
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+				// The mapping stays valid after the channel is closed.
+				return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes).order(ByteOrder.nativeOrder());
+			}
+
+		} catch (IOException e) {
+
+			throw new UncheckedIOException("The frontier could not be spilled to " + spillDirectory, e);
+		}
+	}
+
+}
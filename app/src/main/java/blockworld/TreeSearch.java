@@ -0,0 +1,2271 @@
+package blockworld;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TreeSearch {
+
+	// The list of possible moves.
+	// Its order can be randomized and therefore it is not declared as final static.
+	private List<Character> possibleMoves = Arrays.asList(new Character[]{'U','L','D','R'});
+	
+	// The source of the random order of moves (seeded by the caller for reproducible runs).
+	private SplittableRandom random = new SplittableRandom();
+	
+	// The root of this tree; it will always be the initial state.
+    private Node<SearchState> root;
+    
+    private int timeComplexity;   		 // will tell the total time complexity (number of nodes created)
+    private int currentSpaceComplexity;  // will tell the current space complexity (number of nodes currently in memory)
+    private int spaceComplexity;         // will tell the total space complexity (maximum number of nodes in memory)
+    private int releasedNodes;           // will tell how many nodes of a NodeStore were released as dead branches (they are still in memory)
+    private int peakLiveNodes;           // will tell the maximum number of nodes in memory which were not released
+    
+    private char strategy;
+    
+    // If set, states reached before are detected and pruned (graph search instead of tree search).
+    private boolean graphSearch;
+    
+    // The states reached so far in a graph search (with the lowest depth each one was reached with).
+    private PackedStateSet visited;
+    
+    private int duplicatesPruned; 		 // will tell how many generated nodes were pruned as duplicates in a graph search
+    
+    // If set, A* and IDA* estimate the distance to the solution with this pattern database (and the Manhattan distance).
+    private PatternDatabase patternDatabase;
+    
+    // If set, A*, IDA* and SMA* estimate the distance to the solution with its exact value (the other heuristics are not needed then).
+    // The lookup strategy (L) always uses one, loading the database of the grid if none was given.
+    private DistanceDatabase distanceDatabase;
+    
+    // The heuristic of A*, IDA* and SMA* (combined with the databases above, if set).
+    private Heuristic heuristic = Heuristic.MANHATTAN;
+    
+    // The number of threads expanding a layer of the parallel BFS (1 for the sequential BFS).
+    private int parallelism = 1;
+    
+    // If set, BFS keeps its frontier off the heap (frontierMemory bytes at most), spilling the rest to files in this directory.
+    private File spillDirectory;
+    private long frontierMemory;
+    
+    // The number of nodes of a layer expanded together by one task of the parallel BFS.
+    private final static int LAYER_CHUNK = 4096;
+    
+    // The pools of the parallel BFS by parallelism, shared by all the searches (their worker threads are daemons, idle between searches).
+    private final static Map<Integer, ForkJoinPool> POOLS = new HashMap<Integer, ForkJoinPool>();
+    
+    // The children created so far by the tasks expanding a layer of the parallel BFS, and the budget that stopped them (null if none did).
+    private final AtomicInteger layerChildren = new AtomicInteger();
+    private volatile SearchResult.Termination layerTermination;
+    
+    // If set, A* keeps its nodes as Node objects in a binary heap (the fringe) instead of a NodeStore and a BucketQueue.
+    private boolean binaryHeapFringe;
+    
+    // The maximum number of nodes SMA* keeps in memory.
+    private int memoryLimit = 1 << 20;
+    
+    // If set, the nodes a search goes through are also written to this file as binary records (see SearchTrace).
+    private File traceFile;
+    private SearchTrace trace;
+    
+    // The id of the next node traced by the depth-limited search (its nodes are not stored, so they are numbered as they are entered).
+    private long traceIds;
+    
+    // The live metrics of the running search (null between searches) and whether they are registered as an MBean.
+    private volatile SearchMetrics metrics;
+    private boolean liveMetrics;
+    
+    // If set, a search does not announce itself on the standard output (the verbose display is still printed if asked for).
+    private boolean quiet;
+    
+    // The lowest f-value cut off by the last IDA* iteration (the bound of the next one).
+    private int nextFBound;
+    
+    // The bounds and node counts of every iteration of an IDA* search.
+    private StringBuilder iterationsAnalysis = new StringBuilder();
+    
+    // The budgets of a search (0 for no limit): the nodes created, the nodes in memory and the time spent (in milliseconds).
+    private long maxNodes;
+    private long maxFringeSize;
+    private long timeLimit;
+    
+    // If set, the search can be stopped from another thread.
+    private CancellationToken cancellationToken;
+    
+    // The System.nanoTime() at which the current search runs out of time.
+    private long deadline;
+    
+    // The clock is only read once every CLOCK_CHECK_INTERVAL budget checks (the other budgets are checked every time).
+    private final static int CLOCK_CHECK_INTERVAL = 1024;
+    private int budgetChecks;
+    
+    // The node closest to a solution (lowest Manhattan distance) reached so far, returned by a search stopped early.
+    private Node<SearchState> best;
+    
+    // Thrown by the budget checks to unwind the search; the partial result is built from the best node.
+    private static class BudgetExhausted extends RuntimeException {
+    	
+    	private static final long serialVersionUID = 1L;
+    	
+    	private final SearchResult.Termination termination;
+    	
+    	private BudgetExhausted(SearchResult.Termination termination) {
+    		
+    		super(termination.getDescription(), null, false, false);
+    		this.termination = termination;
+    	}
+    }
+
+    // will contain the actual nodes in the tree.
+    private AbstractCollection<Node<SearchState>> fringe;
+
+    private static class Node<T> implements Comparable<Node<T>> {
+    	
+		private SearchState element;
+		private Node<T> parent;
+		private int depth;
+		
+		// how many children of this node are in memory.
+		private int referenced;
+		
+		// the estimated distance to the solution (heuristic) of the state, used by A*.
+		private int estimate;
+		
+		// the estimate of the heuristic alone (without the databases), from which the ones of the children are updated.
+		private int heuristicEstimate;
+		
+		// SMA* only: the f-value of the node in the open list, the lowest f-value of its forgotten children, 
+		// the moves leading to its forgotten children (one bit per move), if its children were generated and the creation order (to break ties).
+		private int fValue;
+		private int forgottenF;
+		private int forgottenMoves;
+		private boolean expanded;
+		private int sequence;
+	 
+		private Node(SearchState element, Node<T> parent) {
+		    this.element = element;
+		    this.parent = parent;
+		    this.referenced = 0;
+		    this.estimate = element.getDistanceToSolution();
+		    
+		    if (parent == null) {
+		    	depth = 0;
+		    }
+		    else {
+		    	depth = parent.depth + 1;
+		    }
+		}
+
+		// The heuristic function will order the elements in the priority queue (Manhattan distance or pattern database).
+		// If the distances to solution are the same for the two nodes, the smaller depth will have priority.
+		@Override
+		public int compareTo(Node<T> toCompare) {
+			
+			int thisDistance = estimate + depth;
+			int toCompareDistance = toCompare.estimate + toCompare.depth;
+			
+			return (thisDistance - toCompareDistance != 0) ? thisDistance - toCompareDistance : depth - toCompare.depth;
+		}
+    }
+
+
+    // Where expandStored puts the children it creates: a NodeStore (see storeSink) or a SpillingFrontier.
+    private interface ChildSink {
+    	
+    	void add(SearchState child, long parent, int depth, SearchState parentState);
+    }
+    
+    
+    // The A* open list as buckets of node ids (see NodeStore) indexed by f-value (depth + estimated distance) and then by depth.
+    // The f-values are small bounded integers, so adding and removing a node are O(1) (amortized) and no comparison is needed:
+    // the lowest f-value is removed first and, within the same f-value, the smaller depth has priority (as in Node.compareTo).
+    private static class BucketQueue {
+    	
+    	// buckets[f][g] is a stack of the ids of the nodes with the f-value f and the depth g (with sizes[f][g] ids in it).
+    	private int[][][] buckets = new int[0][][];
+    	private int[][] sizes = new int[0][];
+    	
+    	// The number of nodes with each f-value and the lowest depth that may hold nodes for each f-value.
+    	private int[] countPerF = new int[0];
+    	private int[] minDepthPerF = new int[0];
+    	
+    	// The lowest f-value that may hold nodes.
+    	private int minF = Integer.MAX_VALUE;
+    	private int size;
+    	
+    	private void offer(int id, int f, int g) {
+    		
+    		if (f >= buckets.length) {
+    			
+    			int length = Math.max(f + 1, buckets.length * 2);
+    			buckets = Arrays.copyOf(buckets, length);
+    			sizes = Arrays.copyOf(sizes, length);
+    			countPerF = Arrays.copyOf(countPerF, length);
+    			
+    			int oldLength = minDepthPerF.length;
+    			minDepthPerF = Arrays.copyOf(minDepthPerF, length);
+    			Arrays.fill(minDepthPerF, oldLength, length, Integer.MAX_VALUE);
+    		}
+    		
+    		if (buckets[f] == null || g >= buckets[f].length) {
+    			
+    			int length = Math.max(g + 1, buckets[f] == null ? 0 : buckets[f].length * 2);
+    			buckets[f] = buckets[f] == null ? new int[length][] : Arrays.copyOf(buckets[f], length);
+    			sizes[f] = sizes[f] == null ? new int[length] : Arrays.copyOf(sizes[f], length);
+    		}
+    		
+    		int[] bucket = buckets[f][g];
+    		if (bucket == null || sizes[f][g] == bucket.length) {
+    			
+    			bucket = buckets[f][g] = (bucket == null) ? new int[16] : Arrays.copyOf(bucket, bucket.length * 2);
+    		}
+    		
+    		bucket[sizes[f][g]++] = id;
+    		
+    		countPerF[f]++;
+    		minDepthPerF[f] = Math.min(minDepthPerF[f], g);
+    		minF = Math.min(minF, f);
+    		size++;
+    	}
+    	
+    	// Removes the id with the highest priority (or returns -1 if the queue is empty).
+    	private int poll() {
+    		
+    		if (size == 0) {
+    			return -1;
+    		}
+    		
+    		while (countPerF[minF] == 0) {
+    			minF++;
+    		}
+    		
+    		int g = minDepthPerF[minF];
+    		while (sizes[minF][g] == 0) {
+    			g++;
+    		}
+    		minDepthPerF[minF] = g;
+    		
+    		int id = buckets[minF][g][--sizes[minF][g]];
+    		
+    		if (--countPerF[minF] == 0) {
+    			minDepthPerF[minF] = Integer.MAX_VALUE;
+    		}
+    		size--;
+    		
+    		return id;
+    	}
+    }
+
+
+	// The strategies and the version of each one's search, in the same order. A version needs to be bumped whenever a change makes
+	// the strategy return different solutions or statistics, so the solutions cached with the previous version are not used anymore.
+	private final static String STRATEGIES = "BDIAFTML";
+	// The parallel BFS checks its budgets per node and the heuristics of A*, IDA* and SMA* can use the exact distance database (version 2).
+	// BFS and A* count every node their node store holds, the released ones too, and report the live nodes apart (version 3).
+	private final static int[] STRATEGY_VERSIONS = {3, 1, 1, 3, 2, 1, 2, 1};
+	
+	
+	// Whether the strategy is recognized (one of STRATEGIES).
+	public static boolean isStrategy(char strategy) {
+		
+		return STRATEGIES.indexOf(strategy) >= 0;
+	}
+	
+	
+	// The version of the search of a strategy (see SolutionCache).
+	public static int strategyVersion(char strategy) {
+		
+		int index = STRATEGIES.indexOf(strategy);
+		
+		if (index < 0) {
+			throw new IllegalArgumentException("This strategy is not recognized: " + strategy);
+		}
+		
+		return STRATEGY_VERSIONS[index];
+	}
+	
+	
+	public TreeSearch(char strategy) {
+    	
+		root = null;
+		timeComplexity = 0;
+		currentSpaceComplexity = 0;
+		spaceComplexity = 0;
+		
+		this.strategy = strategy;
+		
+		switch(strategy) {
+		
+			case 'B': 
+			case 'D':
+			case 'I':
+			case 'F':
+			case 'T':
+			case 'L': {
+				// Not used: BFS keeps its nodes in a NodeStore (or its layers), DFS, IDS and IDA* walk a single state in place,
+				// the bidirectional BFS keeps its own layers and the lookup only keeps the path to the solution
+				fringe = new ArrayDeque<Node<SearchState>>();
+				break;
+			}
+			case 'A': {
+				// Will act as a priority queue for A* heuristic with a binary heap (by default, A* uses a NodeStore and buckets of f-values)
+				fringe = new PriorityQueue<Node<SearchState>>();
+				break;
+			}
+			case 'M': {
+				// Will act as the SMA* open list: the best leaf (lowest f-value, deepest) is the first and the worst one is the last
+				fringe = new TreeSet<Node<SearchState>>(SMA_ORDER);
+				break;
+			}
+			default: {
+				throw new IllegalArgumentException("This strategy is not recognized: " + strategy);
+			}
+		}
+		
+    }
+	
+	
+	// SMA* forgets nodes, so it cannot keep the states reached before and always performs a tree search.
+	public void setGraphSearch(boolean graphSearch) {
+		
+		this.graphSearch = graphSearch && strategy != 'M';
+	}
+	
+	
+	// The maximum number of nodes in memory during an SMA* search (the deepest solution it can find has memoryLimit - 1 moves).
+	public void setMemoryLimit(int memoryLimit) {
+		
+		if (memoryLimit < 2) {
+			
+			throw new IllegalArgumentException("The memory limit needs to be at least 2 nodes.");
+		}
+		
+		this.memoryLimit = memoryLimit;
+	}
+	
+	
+	// With a parallelism above 1, BFS expands every depth layer in parallel (on a ForkJoinPool with this many threads).
+	public void setParallelism(int parallelism) {
+		
+		if (parallelism < 1) {
+			
+			throw new IllegalArgumentException("The parallelism needs to be at least 1.");
+		}
+		
+		this.parallelism = parallelism;
+	}
+	
+	
+	// With a spill directory, BFS keeps its nodes in a SpillingFrontier instead of the heap: up to memoryThreshold bytes off-heap
+	// and the rest in memory-mapped files of the directory (null for the in-heap fringe). The frontier is always expanded sequentially.
+	public void setSpillingFrontier(long memoryThreshold, File spillDirectory) {
+		
+		this.frontierMemory = memoryThreshold;
+		this.spillDirectory = spillDirectory;
+	}
+	
+	
+	// The heuristic hook of A* and IDA*: the pattern database is used together with the Manhattan distance (taking the highest estimate).
+	public void setPatternDatabase(PatternDatabase patternDatabase) {
+		
+		this.patternDatabase = patternDatabase;
+	}
+	
+	
+	// The heuristic of A*, IDA* and SMA* (the Manhattan distance by default). With a pattern database, the highest of the two estimates is used.
+	public void setHeuristic(Heuristic heuristic) {
+		
+		this.heuristic = heuristic;
+	}
+	
+	
+	// The perfect heuristic of A*, IDA* and SMA* on the small grids (see DistanceDatabase), and the table of the lookup strategy.
+	public void setDistanceDatabase(DistanceDatabase distanceDatabase) {
+		
+		this.distanceDatabase = distanceDatabase;
+	}
+	
+	
+	// With a trace file, a search writes the nodes it goes through to the file (as fixed-size records, from a background thread),
+	// instead of the much slower verbose display; SearchTraceReader replays the trace as the verbose text (null for no trace).
+	// The nodes of the sequential and the spilling BFS, of A* (with buckets of f-values) and of the depth-limited searches
+	// (DFS, IDS and IDA*) are traced; the other searches reject a trace file when they start (see isTraceable).
+	public void setTraceFile(File traceFile) {
+		
+		this.traceFile = traceFile;
+	}
+	
+	
+	// Whether the search writes its nodes to the trace file.
+	private boolean isTraceable() {
+		
+		switch(strategy) {
+		
+			case 'B': {
+				return parallelism == 1 || spillDirectory != null;
+			}
+			case 'A': {
+				return !binaryHeapFringe;
+			}
+			case 'D':
+			case 'I':
+			case 'F': {
+				return true;
+			}
+			default: {
+				return false;
+			}
+		}
+	}
+	
+	
+	// A quiet search prints nothing on the standard output unless its nodes are displayed, so the output can hold something else (see BatchSolver).
+	public void setQuiet(boolean quiet) {
+		
+		this.quiet = quiet;
+	}
+	
+	
+	// With live metrics, the counters of a running search can be watched through JMX (jconsole, JMC or jcmd);
+	// they are published together with the budget checks, once every CLOCK_CHECK_INTERVAL nodes.
+	public void setLiveMetrics(boolean liveMetrics) {
+		
+		this.liveMetrics = liveMetrics;
+	}
+	
+	
+	// The live metrics of the search running now (null if no search is running), readable from any thread.
+	public SearchMetrics getMetrics() {
+		
+		return metrics;
+	}
+	
+	
+	// The maximum number of nodes created by a search (0 for no limit).
+	public void setMaxNodes(long maxNodes) {
+		
+		this.maxNodes = maxNodes;
+	}
+	
+	
+	// The maximum number of nodes in memory during a search, as measured by the space complexity (0 for no limit).
+	public void setMaxFringeSize(long maxFringeSize) {
+		
+		this.maxFringeSize = maxFringeSize;
+	}
+	
+	
+	// The maximum time of a search, in milliseconds (0 for no limit).
+	public void setTimeLimit(long timeLimit) {
+		
+		this.timeLimit = timeLimit;
+	}
+	
+	
+	public void setCancellationToken(CancellationToken cancellationToken) {
+		
+		this.cancellationToken = cancellationToken;
+	}
+	
+	
+	// Stops the search (by throwing BudgetExhausted) if a budget was used up or if the search was cancelled.
+	// Unless checkClock is set, the time limit is only checked (and the live metrics published) once every CLOCK_CHECK_INTERVAL calls.
+	//
+	// @param depth, bound : the depth of the current node and the bound the search is under (see SearchMetricsMBean.getBound),
+	// only used by the live metrics.
+	private void checkBudget(boolean checkClock, int depth, int bound) {
+		
+		if (maxNodes > 0 && timeComplexity >= maxNodes) {
+			throw new BudgetExhausted(SearchResult.Termination.NODE_BUDGET);
+		}
+		if (maxFringeSize > 0 && currentSpaceComplexity >= maxFringeSize) {
+			throw new BudgetExhausted(SearchResult.Termination.FRINGE_BUDGET);
+		}
+		if (cancellationToken != null && cancellationToken.isCancelled()) {
+			throw new BudgetExhausted(SearchResult.Termination.CANCELLED);
+		}
+		if (!checkClock && ++budgetChecks % CLOCK_CHECK_INTERVAL != 0) {
+			return;
+		}
+		SearchMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.publish(timeComplexity, currentSpaceComplexity, spaceComplexity, depth, bound);
+		}
+		if (timeLimit > 0 && System.nanoTime() - deadline > 0) {
+			throw new BudgetExhausted(SearchResult.Termination.DEADLINE);
+		}
+	}
+	
+	
+	// Remembers the node if it is closer to a solution than the best one so far.
+	private void considerBest(Node<SearchState> node) {
+		
+		if (node.element.getDistanceToSolution() < best.element.getDistanceToSolution()) {
+			
+			best = node;
+		}
+	}
+	
+	
+	// Random moves are drawn from this generator; every TreeSearch needs its own (see SplittableRandom.split()).
+	public void setRandom(SplittableRandom random) {
+		
+		this.random = random;
+	}
+	
+	
+	// Shuffles a list of moves in place with the given generator (Fisher-Yates, as Collections.shuffle does with a Random).
+	private static void shuffleMoves(List<Character> moves, SplittableRandom random) {
+		
+		for (int i = moves.size() - 1; i > 0; i--) {
+			
+			Collections.swap(moves, i, random.nextInt(i + 1));
+		}
+	}
+	
+	
+	// The estimated distance to the solution of a state.
+	// Both the heuristic and the pattern database never overestimate it, so their maximum is still admissible.
+	// The distance database gives the exact distance (a state with no solution keeps the estimate of the heuristic).
+	private int estimate(SearchState state) {
+		
+		return withDatabases(state, heuristic.estimate(state));
+	}
+	
+	
+	// The estimate of the heuristic for a child, updated from the one of its parent (see Heuristic.estimateAfterMove).
+	private int estimateAfterMove(SearchState parent, int parentEstimate, SearchState child) {
+		
+		return heuristic.estimateAfterMove(child, child.getLastMove(), parentEstimate, parent.getDistanceToSolution());
+	}
+	
+	
+	// The estimate of a state from the estimate of the heuristic alone.
+	private int withDatabases(SearchState state, int estimate) {
+		
+		if (distanceDatabase != null) {
+			
+			return Math.max(estimate, distanceDatabase.distance(state));
+		}
+		
+		if (patternDatabase == null) {
+			
+			return estimate;
+		}
+		
+		return Math.max(estimate, patternDatabase.estimate(state));
+	}
+	
+	
+	// Allows A* to use a binary heap (java.util.PriorityQueue of Node objects ordered by Node.compareTo) 
+	// instead of the bucket queue of NodeStore ids, for comparison.
+	public void setBinaryHeapFringe(boolean binaryHeap) {
+		
+		this.binaryHeapFringe = binaryHeap;
+	}
+    
+    private void addNode(SearchState element, Node<SearchState> parent) {
+    	
+		if (root == null) {
+			
+			// The root node is not added to the fringe. 
+			// As it is the initial state, we will have a global reference for it.
+		    root = new Node<SearchState>(element, null);
+		    root.heuristicEstimate = heuristic.estimate(element);
+
+		} 
+		else {
+			
+			Node<SearchState> node = new Node<SearchState>(element, parent);
+			
+			node.heuristicEstimate = estimateAfterMove(parent.element, parent.heuristicEstimate, element);
+			node.estimate = withDatabases(element, node.heuristicEstimate);
+			
+			// based on the strategy, we add nodes to the fringe
+			addNodeToFringe(node);
+			
+			// we also keep track of how many times the parent is referenced.
+			parent.referenced++;
+			
+		}
+		
+		// A node is created and then it is added to the fringe.
+		// Therefore the time and space complexity both increase.
+	    timeComplexity++;
+	    currentSpaceComplexity++;
+	    
+	    if (currentSpaceComplexity > spaceComplexity) {
+	    	spaceComplexity = currentSpaceComplexity;
+	    }
+	    
+	   
+    }
+    
+    // based on the strategy (only the A* with a binary heap keeps Node objects in the fringe)
+    @SuppressWarnings("unchecked")
+	private void addNodeToFringe(Node<SearchState> element) {
+    	
+    	switch(strategy) {
+    	
+			case 'A': {
+				
+				((Queue<Node<SearchState>>)fringe).add(element);
+				break;
+			}
+			default: {
+				throw new IllegalArgumentException("This strategy is not recognized: " + strategy);
+			}
+    	}
+    }
+    
+    
+    // Expanding current node, adding child nodes to the fringe. It can randomize the order of moves.
+	private void expand (Node<SearchState> parent, boolean randomize) {
+    	
+    	SearchState parentState = parent.element;
+    	
+    	if (randomize) {
+
+    		shuffleMoves(possibleMoves, random);
+    	}
+
+    	
+    	for (char direction : possibleMoves) {
+    		
+        	if (parentState.canMove(direction)) {
+        		
+        		// Creating the new child state (copied from the parent and moved in one step).
+        		SearchState childState = parentState.deriveChild(direction);
+        		
+        		// In a graph search, a state already reached (with a depth not higher than this one) is a duplicate.
+        		if (graphSearch && !visited.addIfBetter(childState, parent.depth + 1)) {
+        			
+        			duplicatesPruned++;
+        			continue;
+        		}
+        		
+        		// Adding the state to the tree.
+        		addNode(childState, parent);
+        	}
+    	}
+    	
+    }
+	
+	
+	// Returns a solution as String depending on the display type and the initial state.
+	// If the search space is too big, this method might run out of Heap memory.
+	public String search(SearchState initial, boolean randomMoves, boolean solutionFullStateDisplay, boolean displayAll) 
+			throws OutOfMemoryError {
+		
+		return solve(initial, randomMoves, displayAll).toReport(solutionFullStateDisplay);
+	}
+	
+	
+	// Performs the search and returns its result (the analysis counters and the moves of the solution), without rendering any report.
+	// The tree of a previous search is discarded first, so the same TreeSearch can be used for any number of searches.
+	// If the search space is too big, this method might run out of Heap memory.
+	public SearchResult solve(SearchState initial, boolean randomMoves, boolean displayAll) 
+			throws OutOfMemoryError {
+		
+		reset();
+		
+		// A search which does not trace its nodes would only write the header of the trace.
+		if (traceFile != null && !isTraceable()) {
+			
+			throw new IllegalStateException("The (" + strategy + " Search) cannot be traced with these settings"
+					+ " (only the sequential BFS, A* with buckets of f-values, DFS, IDS and IDA* are).");
+		}
+		
+		if (!quiet) {
+			System.out.println("Finding a solution with (" + strategy + " Search)\n\nSearching...\n");
+		}
+		
+		if (traceFile != null) {
+			
+			try {
+				trace = new SearchTrace(traceFile, strategy, initial);
+			} catch (IOException e) {
+				throw new UncheckedIOException("The search trace could not be created.", e);
+			}
+		}
+		
+		metrics = new SearchMetrics(strategy);
+		if (liveMetrics) {
+			metrics.register();
+		}
+		
+		SearchEvents.SolutionFound solutionEvent = new SearchEvents.SolutionFound();
+		solutionEvent.begin();
+		
+		long startTime = System.nanoTime();
+		deadline = startTime + timeLimit * 1000000;
+		
+		// Adding the initial state to the tree. It will become the root element.
+		addNode(initial, null);
+		best = root;
+		
+		// The initial state is the first state reached in a graph search.
+		if (graphSearch) {
+			
+			visited = new PackedStateSet(SearchState.packedWords(initial.getDimension()));
+			visited.addIfBetter(initial, 0);
+		}
+		
+		// Will remember the solution node after performing the type of search requested.
+		Node<SearchState> solution = null;
+		
+		// The strategy used in this search.
+		String strategyUsed = null;
+		
+		SearchResult.Termination termination = SearchResult.Termination.SOLVED;
+		
+		// Continuing towards the solution based on the strategy.
+		try {
+			switch(strategy) {
+			
+				case 'B': {
+					
+					strategyUsed = "Breadth First Search";
+					solution = breadthFirstSearch(randomMoves, displayAll);
+					
+					break;
+				}
+				
+				case 'D': {
+					
+					strategyUsed = "Depth First Search";
+					solution = depthFirstSearch(randomMoves, displayAll);
+	
+					break;
+				}
+				case 'I': {
+					
+					strategyUsed = "Iterative Deepening Search";
+					solution = iterativeDeepeningSearch(randomMoves, displayAll);
+	
+					break;
+				}
+				case 'A': {
+					
+					strategyUsed = "A* Heuristic Search";
+					solution = heuristicASearch(randomMoves, displayAll);
+	
+					break;
+				}
+				case 'F': {
+					
+					strategyUsed = "Iterative Deepening A* Search";
+					solution = iterativeDeepeningASearch(randomMoves, displayAll);
+	
+					break;
+				}
+				case 'T': {
+					
+					strategyUsed = "Bidirectional Breadth First Search";
+					solution = bidirectionalSearch(randomMoves, displayAll);
+	
+					break;
+				}
+				case 'M': {
+					
+					strategyUsed = "Simplified Memory-Bounded A* Search";
+					solution = memoryBoundedASearch(randomMoves, displayAll);
+	
+					break;
+				}
+				case 'L': {
+					
+					strategyUsed = "Distance Database Lookup";
+					solution = lookupSearch(randomMoves, displayAll);
+	
+					break;
+				}
+				default: {
+					throw new IllegalArgumentException("This strategy is not recognized: " + strategy);
+				}
+			}
+		} catch (BudgetExhausted stop) {
+			
+			termination = stop.termination;
+			
+		} catch (OutOfMemoryError error) {
+			
+			// The tree is dropped (only the path of the best node is kept), so the JVM can carry on.
+			fringe.clear();
+			visited = null;
+			termination = SearchResult.Termination.OUT_OF_MEMORY;
+			
+		} finally {
+			
+			// Every record is written before the result is returned.
+			closeTrace();
+			
+			metrics.unregister();
+			metrics = null;
+		}
+		
+		long wallTime = System.nanoTime() - startTime;
+		
+		if (solution == null && termination == SearchResult.Termination.SOLVED) {
+			
+			termination = SearchResult.Termination.NO_SOLUTION;
+		}
+		
+		if (solution != null && solutionEvent.shouldCommit()) {
+			
+			solutionEvent.strategy = strategy;
+			solutionEvent.depth = solution.depth;
+			solutionEvent.nodesCreated = timeComplexity;
+			solutionEvent.peakNodes = spaceComplexity;
+			solutionEvent.commit();
+		}
+		
+		// The moves are collected from the last node (the solution or the best one) back to the root, so they are stored from the end.
+		Node<SearchState> last = (solution != null) ? solution : best;
+		byte[] moves = new byte[last.depth];
+		
+		for (Node<SearchState> node = last; node.parent != null; node = node.parent) {
+			
+			moves[node.depth - 1] = SearchResult.encodeMove(node.element.getLastMove());
+		}
+		
+		String heuristicUsed = null;
+		if (distanceDatabase != null && strategy != 'B' && strategy != 'D' && strategy != 'I' && strategy != 'T') {
+			heuristicUsed = distanceDatabase.getDescription();
+		}
+		else if (strategy == 'A' || strategy == 'F' || strategy == 'M') {
+			heuristicUsed = (patternDatabase == null ? heuristic.getDescription() : patternDatabase.getDescription() + " / " + heuristic.getDescription());
+		}
+		
+		// Without any node released, every node in memory was live.
+		int liveNodes = (releasedNodes == 0) ? spaceComplexity : peakLiveNodes;
+		
+		SearchResult result = new SearchResult(strategy, strategyUsed, initial, termination, moves, last.element.getDistanceToSolution(), 
+				timeComplexity, spaceComplexity, liveNodes, duplicatesPruned, wallTime, graphSearch, parallelism, heuristicUsed, iterationsAnalysis.toString());
+		
+		// The tree is not needed anymore.
+		reset();
+		
+		return result;
+		
+	}
+	
+	
+	private void closeTrace() {
+		
+		if (trace == null) {
+			
+			return;
+		}
+		
+		try {
+			trace.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("The search trace could not be written.", e);
+		} finally {
+			trace = null;
+		}
+	}
+	
+	
+	// Reinitiating the whole search tree (only the strategy, the settings and the type of the empty fringe are preserved for the next search).
+	private void reset() {
+		
+		root = null;
+		best = null;
+		fringe.clear();
+		budgetChecks = 0;
+		
+		timeComplexity = currentSpaceComplexity = spaceComplexity = duplicatesPruned = 0;
+		releasedNodes = peakLiveNodes = 0;
+		traceIds = 0;
+		visited = null;
+		iterationsAnalysis.setLength(0);
+	}
+	
+	
+	// This method will NOT return any solution and it is entirely designed for analysing purposes.
+	// It will perform the search multiple times, returning the average, the variance and the percentiles of the time and space complexity 
+	// and of the depth of the solution based on each individual search results.
+	//
+	// @param times : number of times the search is run
+	public String multipleSearch(SearchState initial, int times, boolean randomMoves) 
+			 throws OutOfMemoryError {
+		
+		if (!quiet) {
+			System.out.println("Running (" + strategy + " Search) tests " + times + " time(s):\n\n");
+		}
+		
+		List<SearchResult> results = new ArrayList<SearchResult>(times);
+		long startTime = System.nanoTime();
+		
+		for (int i = 0; i < times; i++) {
+			
+			if (!quiet) {
+				System.out.println("Test Number: " + (i+1) + "\n");
+			}
+
+			results.add(solve(initial, randomMoves, false));
+			
+			if (!quiet) {
+				System.out.println("Found a solution!\n\n");
+			}
+		}
+		
+		return multipleSearchAnalysis(results, 1, System.nanoTime() - startTime);
+		
+	}
+	
+	
+	// The analysis of a batch of searches (run on the given number of threads, taking elapsedNanos altogether).
+	static String multipleSearchAnalysis(List<SearchResult> results, int threads, long elapsedNanos) {
+		
+		int times = results.size();
+		
+		long[] timeComplex = new long[times];
+		long[] spaceComplex = new long[times];
+		long[] depthSol = new long[times];
+		int solved = 0;
+		
+		for (int i = 0; i < times; i++) {
+			
+			SearchResult result = results.get(i);
+			timeComplex[i] = result.getNodesCreated();
+			spaceComplex[i] = result.getPeakNodes();
+			
+			// only the searches which found a solution have a depth.
+			if (result.isSolved()) {
+				depthSol[solved++] = result.getSolutionDepth();
+			}
+		}
+		
+		StringBuilder analysis = new StringBuilder();
+		
+		analysis.append("Test Searches Completed!\n");
+		analysis.append("========================\n\n");
+		analysis.append("Search Analysis\n");
+		analysis.append("------------------------\n");
+		analysis.append("Searches run: " + times + " (on " + threads + " thread(s), in " + (elapsedNanos / 1000000) + " ms)\n");
+		if (solved < times) {
+			analysis.append("Searches without a solution: " + (times - solved) + "\n");
+		}
+		appendStatistics(analysis, "Time complexity", timeComplex, times);
+		appendStatistics(analysis, "Space complexity", spaceComplex, times);
+		appendStatistics(analysis, "Depth of the solution", depthSol, solved);
+		
+		return analysis.toString();
+	}
+	
+	
+	// The nodes created and kept by the searches of the same puzzle with different heuristics (in the same order as the descriptions),
+	// relative to the first one.
+	static String heuristicComparison(List<SearchResult> results, List<String> heuristics) {
+		
+		StringBuilder comparison = new StringBuilder();
+		
+		comparison.append("Heuristic Comparison (" + results.get(0).getStrategy() + " Search)\n");
+		comparison.append("========================\n\n");
+		comparison.append(String.format("%-60s %14s %9s %14s %7s %10s%n", "Heuristic", "Nodes created", "Relative", "Peak nodes", "Depth", "Time (ms)"));
+		
+		long reference = Math.max(1, results.get(0).getNodesCreated());
+		
+		for (int i = 0; i < results.size(); i++) {
+			
+			SearchResult result = results.get(i);
+			
+			comparison.append(String.format("%-60s %14d %8.3fx %14d %7s %10d%n", heuristics.get(i), result.getNodesCreated(), 
+					(double) result.getNodesCreated() / reference, result.getPeakNodes(), 
+					result.isSolved() ? String.valueOf(result.getSolutionDepth()) : result.getTermination().name(), result.getWallTimeNanos() / 1000000));
+		}
+		
+		return comparison.toString();
+	}
+	
+	
+	// Appends the average, the (sample) variance and the percentiles (nearest rank) of the first count values.
+	private static void appendStatistics(StringBuilder analysis, String name, long[] values, int count) {
+		
+		if (count == 0) {
+			return;
+		}
+		
+		long[] sorted = Arrays.copyOf(values, count);
+		Arrays.sort(sorted);
+		
+		double mean = 0;
+		for (long value : sorted) {
+			mean += value;
+		}
+		mean /= count;
+		
+		double variance = 0;
+		for (long value : sorted) {
+			variance += (value - mean) * (value - mean);
+		}
+		variance = count > 1 ? variance / (count - 1) : 0;
+		
+		analysis.append("Average " + name + ": " + (float) mean + "\n");
+		analysis.append("Variance of the " + name + ": " + (float) variance + "\n");
+		analysis.append("Percentiles of the " + name + " (min/50/90/99/max): " + sorted[0] + " / " + percentile(sorted, 50) + " / " 
+				+ percentile(sorted, 90) + " / " + percentile(sorted, 99) + " / " + sorted[count - 1] + "\n");
+	}
+	
+	
+	private static long percentile(long[] sorted, int percent) {
+		
+		int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+		
+		return sorted[Math.max(rank, 1) - 1];
+	}
+	
+	
+	
+	// As a result of the implementation, the following methods do not differ by much.
+	// Having separate methods for each one of them is a design choice to make each method more transparent.
+	
+	@SuppressWarnings("unchecked")
+	private Node<SearchState> breadthFirstSearch(boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		if (spillDirectory != null) {
+			
+			return spillingBreadthFirstSearch(randomMoves, displayAll);
+		}
+		
+		if (parallelism > 1) {
+			
+			return parallelBreadthFirstSearch(randomMoves, displayAll);
+		}
+		
+		// The nodes are stored in the order they are created, so the FIFO queue of BFS is simply the ids from the first one not expanded.
+		NodeStore nodes = new NodeStore(root.element.getDimension());
+		nodes.add(root.element, NodeStore.NO_PARENT, 0);
+		ChildSink sink = storeSink(nodes, null);
+		
+		for (int id = 0; id < nodes.size(); id++) {
+			
+			SearchState current = nodes.getState(id);
+			
+			if (current.checkSolution()) {
+				
+				return pathToNode(nodes.getPath(id), nodes.getDepth(id));
+			}
+			
+			// Just for test purposes.
+			if (displayAll) {
+				displayStoredNode(nodes, id, current, false);
+			}
+			
+			if (trace != null) {
+				trace.node(id, nodes.getParent(id), nodes.getDepth(id), current.getLastMove(), estimate(current));
+			}
+			
+			considerBest(nodes, id, current);
+			checkBudget(false, nodes.getDepth(id), -1);
+			
+			expandStored(id, nodes.getDepth(id), current, randomMoves, sink);
+			releaseIfDead(nodes, id);
+		}
+		
+		return null;
+
+	}
+	
+	
+	// Expanding a stored node (of a NodeStore or of a SpillingFrontier), handing its children to the sink. It can randomize the order of moves.
+	private void expandStored(long id, int depth, SearchState current, boolean randomize, ChildSink sink) {
+		
+		if (randomize) {
+			
+			shuffleMoves(possibleMoves, random);
+		}
+		
+		for (char direction : possibleMoves) {
+			
+			if (! current.canMove(direction)) {
+				
+				continue;
+			}
+			
+			SearchState child = current.deriveChild(direction);
+			
+			// In a graph search, a state already reached (with a depth not higher than this one) is a duplicate.
+			if (graphSearch && !visited.addIfBetter(child, depth + 1)) {
+				
+				duplicatesPruned++;
+				continue;
+			}
+			
+			sink.add(child, id, depth + 1, current);
+			
+			timeComplexity++;
+			currentSpaceComplexity++;
+			
+			if (currentSpaceComplexity > spaceComplexity) {
+				spaceComplexity = currentSpaceComplexity;
+			}
+			if (currentSpaceComplexity - releasedNodes > peakLiveNodes) {
+				peakLiveNodes = currentSpaceComplexity - releasedNodes;
+			}
+		}
+	}
+	
+	
+	// The sink of the children of the nodes of a NodeStore: they are added to the store (and to the A* open list, if given,
+	// with the estimate of the heuristic updated from the one of their parent, kept in the store).
+	private ChildSink storeSink(NodeStore nodes, BucketQueue open) {
+		
+		return (child, parent, depth, parentState) -> {
+			
+			int childId = nodes.add(child, (int) parent, depth);
+			
+			if (open != null) {
+				
+				int estimate = estimateAfterMove(parentState, nodes.getEstimate((int) parent), child);
+				
+				nodes.setEstimate(childId, estimate);
+				open.offer(childId, depth + withDatabases(child, estimate), depth);
+			}
+		};
+	}
+	
+	
+	// A node left without children (all of them were pruned as duplicates, or it was stale) is a dead branch: it is released
+	// together with its ancestors left without children. The store keeps their slots, so they still count in the space complexity,
+	// but not in the live nodes (the ones which may still be part of a solution).
+	private void releaseIfDead(NodeStore nodes, int id) {
+		
+		if (nodes.getChildren(id) == 0) {
+			
+			releasedNodes += nodes.release(id);
+		}
+	}
+	
+	
+	// Remembers the path to a stored node if its state is closer to a solution than the best one so far (this only happens a few times per search).
+	private void considerBest(NodeStore nodes, int id, SearchState state) {
+		
+		if (state.getDistanceToSolution() < best.element.getDistanceToSolution()) {
+			
+			best = pathToNode(nodes.getPath(id), nodes.getDepth(id));
+		}
+	}
+	
+	
+	// Just for test purposes: displays a stored node with its parent (and the Manhattan distances for A*).
+	private void displayStoredNode(NodeStore nodes, int id, SearchState current, boolean distances) {
+		
+		int parent = nodes.getParent(id);
+		
+		if (parent != NodeStore.NO_PARENT) {
+			
+			SearchState parentState = nodes.getState(parent);
+			
+			System.out.println("From Parent on Depth " + nodes.getDepth(parent) + (distances ? " with the Manhattan distance " + parentState.getDistanceToSolution() : "") + ":\n\n" + parentState.getState());
+			System.out.println("By performing action : " + current.getLastMove() + (distances ? ", we reach a Manhattan distance of " + current.getDistanceToSolution() : ""));
+			System.out.println("We reached the Current State:\n\n" + current.getState());
+		}
+		else {
+			System.out.println("The Initial State is:\n\n" + current.getState());
+		}
+		System.out.println("Current Node Depth: " + nodes.getDepth(id) + "\n");
+		System.out.println("=======================================\n");
+	}
+
+	
+	// The BFS over a SpillingFrontier: the nodes are records of a log (off-heap, then on disk) and only the node expanded is a heap object.
+	// The nodes are expanded in the same order as in the in-heap BFS and the path of the solution is rebuilt from the parent indices.
+	private Node<SearchState> spillingBreadthFirstSearch(boolean randomMoves, boolean displayAll) {
+		
+		try (SpillingFrontier frontier = new SpillingFrontier(root.element.getDimension(), SpillingFrontier.DEFAULT_SEGMENT_BYTES, frontierMemory, spillDirectory)) {
+			
+			frontier.add(root.element, SpillingFrontier.NO_PARENT, 0);
+			ChildSink sink = (child, parent, depth, parentState) -> frontier.add(child, parent, depth);
+			
+			long index;
+			while ((index = frontier.poll()) >= 0) {
+				
+				SearchState current = frontier.getState(index);
+				int depth = frontier.getDepth(index);
+				
+				if (current.checkSolution()) {
+					
+					return pathToNode(frontier.getPath(index), depth);
+				}
+				
+				// Just for test purposes.
+				if (displayAll) {
+					System.out.println("Node " + index + " (" + frontier.size() + " node(s) waiting, " + frontier.stored() + " stored):\n\n" + current.getState());
+					System.out.println("Current Node Depth: " + depth + "\n");
+					System.out.println("=======================================\n");
+				}
+				
+				if (trace != null) {
+					trace.node(index, frontier.getParent(index), depth, current.getLastMove(), estimate(current));
+				}
+				
+				// The path to a state closer to a solution is built (this only happens a few times per search).
+				if (current.getDistanceToSolution() < best.element.getDistanceToSolution()) {
+					
+					best = pathToNode(frontier.getPath(index), depth);
+				}
+				
+				checkBudget(false, depth, -1);
+				
+				// The space complexity counts the nodes stored in the frontier (off the heap).
+				expandStored(index, depth, current, randomMoves, sink);
+			}
+			
+			return null;
+		}
+	}
+	
+	
+	// The layer-synchronous BFS: all the nodes of a depth are expanded in parallel, in chunks, 
+	// and their children are merged (in the same order as the sequential BFS would add them) into the layer of the next depth.
+	// The first solution found is the first one of the shallowest layer holding a solution, so it has the same depth as with the sequential BFS.
+	// The tasks check the budgets after every node they expand (see checkLayerBudget), so a budget is never overshot by more than
+	// the children of a node per thread; the nodes created are then merged and counted, and the search stops with the closest one.
+	private Node<SearchState> parallelBreadthFirstSearch(boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		ForkJoinPool pool = pool(parallelism);
+		
+		List<Node<SearchState>> layer = Collections.singletonList(root);
+		
+		while (true) {
+			
+			for (Node<SearchState> node : layer) {
+				
+				if (node.element.checkSolution()) {
+					return node;
+				}
+				
+				considerBest(node);
+			}
+			
+			// The budgets (and the clock) are checked before every layer too; the tasks check them after every node (see checkLayerBudget).
+			checkBudget(true, layer.isEmpty() ? -1 : layer.get(0).depth, -1);
+			
+			// a graph search may run out of new states.
+			if (layer.isEmpty()) {
+				return null;
+			}
+			
+			// Just for test purposes.
+			if (displayAll) {
+				System.out.println("Expanding the " + layer.size() + " node(s) on Depth " + layer.get(0).depth + " with " + parallelism + " threads\n");
+				System.out.println("=======================================\n");
+			}
+			
+			// results[i] will hold the children of the i-th chunk of the layer (null if the chunk was not expanded before a budget ran out).
+			int chunks = (layer.size() + LAYER_CHUNK - 1) / LAYER_CHUNK;
+			List<List<Node<SearchState>>> results = new ArrayList<List<Node<SearchState>>>(Collections.nCopies(chunks, null));
+			
+			// Every chunk shuffles its moves with its own generator, split (in order) from the one of this search.
+			SplittableRandom[] randoms = null;
+			if (randomMoves) {
+				randoms = new SplittableRandom[chunks];
+				for (int i = 0; i < randoms.length; i++) {
+					randoms[i] = random.split();
+				}
+			}
+			
+			layerChildren.set(0);
+			layerTermination = null;
+			
+			pool.invoke(new LayerExpansion(layer, results, randoms, 0, chunks));
+			
+			List<Node<SearchState>> nextLayer = new ArrayList<Node<SearchState>>();
+			
+			for (List<Node<SearchState>> children : results) {
+				
+				if (children == null) {
+					continue;
+				}
+				
+				for (Node<SearchState> child : children) {
+					
+					// In a graph search, a state already reached is a duplicate (checked here, in the order of the sequential BFS).
+					if (graphSearch && !visited.addIfBetter(child.element, child.depth)) {
+						
+						duplicatesPruned++;
+						continue;
+					}
+					
+					child.parent.referenced++;
+					nextLayer.add(child);
+				}
+			}
+			
+			timeComplexity += nextLayer.size();
+			currentSpaceComplexity += nextLayer.size();
+			
+			if (currentSpaceComplexity > spaceComplexity) {
+				spaceComplexity = currentSpaceComplexity;
+			}
+			
+			// The nodes of the layer left without children (all of them duplicates) are dropped, with their ancestors left without children.
+			for (Node<SearchState> node : layer) {
+				
+				for (Node<SearchState> discard = node; discard != root && discard.referenced == 0; discard = discard.parent) {
+					
+					discard.parent.referenced--;
+					currentSpaceComplexity--;
+				}
+			}
+			
+			// A budget ran out while the layer was expanded: the children created so far are the last nodes considered.
+			if (layerTermination != null) {
+				
+				for (Node<SearchState> child : nextLayer) {
+					considerBest(child);
+				}
+				
+				throw new BudgetExhausted(layerTermination);
+			}
+			
+			layer = nextLayer;
+		}
+	}
+	
+	
+	// The pool of the parallel BFS with the given number of threads (created the first time it is needed).
+	private static ForkJoinPool pool(int parallelism) {
+		
+		synchronized (POOLS) {
+			
+			return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+		}
+	}
+	
+	
+	// Expands the chunks [from, to) of a layer, splitting the range in two until a single chunk is left.
+	private class LayerExpansion extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final List<Node<SearchState>> layer;
+		private final List<List<Node<SearchState>>> results;
+		private final SplittableRandom[] randoms; // the generator of every chunk (null if the moves are not randomized)
+		private final int from;
+		private final int to;
+		
+		private LayerExpansion(List<Node<SearchState>> layer, List<List<Node<SearchState>>> results, SplittableRandom[] randoms, int from, int to) {
+			
+			this.layer = layer;
+			this.results = results;
+			this.randoms = randoms;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			
+			if (to - from > 1) {
+				
+				int middle = (from + to) >>> 1;
+				invokeAll(new LayerExpansion(layer, results, randoms, from, middle), new LayerExpansion(layer, results, randoms, middle, to));
+				return;
+			}
+			
+			int first = from * LAYER_CHUNK;
+			int last = Math.min(first + LAYER_CHUNK, layer.size());
+			
+			// Every chunk has its own order of moves (the shared list is only read).
+			List<Character> moves = new ArrayList<Character>(possibleMoves);
+			List<Node<SearchState>> children = new ArrayList<Node<SearchState>>((last - first) * 3);
+			
+			for (int i = first; i < last && layerTermination == null; i++) {
+				
+				Node<SearchState> parent = layer.get(i);
+				
+				if (randoms != null) {
+					shuffleMoves(moves, randoms[from]);
+				}
+				
+				int created = children.size();
+				
+				for (char direction : moves) {
+					
+					if (parent.element.canMove(direction)) {
+						
+						children.add(new Node<SearchState>(parent.element.deriveChild(direction), parent));
+					}
+				}
+				
+				checkLayerBudget(children.size() - created);
+			}
+			
+			// Every task writes its own slot of the list, which the pool publishes to the search thread when the layer is joined.
+			results.set(from, children);
+		}
+	}
+	
+	
+	// The budget check of the tasks of the parallel BFS (checkBudget is not thread-safe): it adds the children just created
+	// to the ones of the layer and records the budget that ran out (the tasks stop at their next node).
+	// The children are counted before the duplicates are pruned, so a graph search stops slightly before its node budget rather than after it.
+	private void checkLayerBudget(int children) {
+		
+		int created = layerChildren.addAndGet(children);
+		
+		if (maxNodes > 0 && timeComplexity + created >= maxNodes) {
+			layerTermination = SearchResult.Termination.NODE_BUDGET;
+		}
+		else if (maxFringeSize > 0 && currentSpaceComplexity + created >= maxFringeSize) {
+			layerTermination = SearchResult.Termination.FRINGE_BUDGET;
+		}
+		else if (cancellationToken != null && cancellationToken.isCancelled()) {
+			layerTermination = SearchResult.Termination.CANCELLED;
+		}
+		else if (timeLimit > 0 && System.nanoTime() - deadline > 0) {
+			layerTermination = SearchResult.Termination.DEADLINE;
+		}
+	}
+	
+	
+	// DFS is a depth-limited search without any limit. 
+	// Since it is a DFS in an infinite tree, the move stack will keep growing as we move down the branch.
+	private Node<SearchState> depthFirstSearch(boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		return depthLimitedSearch(Integer.MAX_VALUE, Integer.MAX_VALUE, randomMoves, displayAll);
+
+	}
+	
+	
+	// The depth-limited search walks the tree with a single mutable state (make/unmake):
+	// the state is moved when a child is entered and moved back (unmove) when the child is left,
+	// so only the moves from the root to the current node are remembered (the move stack) and nothing is allocated per node.
+	// The children are visited in the same order as if they were pushed onto a stack (the last possible move first).
+	// A node is counted as created when it is entered and the nodes in memory are the ones on the current path.
+	//
+	// @param fBound : nodes whose depth + estimated distance (f-value) exceeds it are cut off without being entered (IDA*);
+	// the lowest f-value cut off is remembered for the next iteration.
+	private Node<SearchState> depthLimitedSearch(int depthLimit, int fBound, boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		// The root state is kept intact; the walk moves a copy of it.
+		SearchState current = root.element.clone();
+		int depth = 0;
+		
+		// moves[k] is the move made at depth k, while the (four) moves of the node at depth k to be tried are 
+		// order[4k] .. order[4k + 3] (starting from next[k]).
+		char[] moves = new char[16];
+		char[] order = new char[16 * 4];
+		int[] next = new int[16];
+		
+		// The trace ids of the nodes on the current path (by depth), only kept when the search is traced.
+		long[] pathIds = (trace != null) ? new long[next.length + 1] : null;
+		
+		// IDA*: the estimates of the heuristic for the nodes on the current path (by depth), updated on every move (see Heuristic.estimateAfterMove).
+		int[] estimates = (fBound != Integer.MAX_VALUE) ? new int[next.length + 1] : null;
+		if (estimates != null) {
+			estimates[0] = heuristic.estimate(current);
+		}
+		
+		nextFBound = Integer.MAX_VALUE;
+		
+		// The bound shown by the live metrics.
+		int bound = (fBound != Integer.MAX_VALUE) ? fBound : (depthLimit != Integer.MAX_VALUE) ? depthLimit : -1;
+		
+		if (displayAll) {
+			
+			System.out.println(fBound == Integer.MAX_VALUE ? "Depth limit: " + depthLimit : "f-bound: " + fBound);
+			System.out.println("---------------------------------------\n");
+			System.out.println("The Initial State is:\n\n" + current.getState());
+			System.out.println("Current Node Depth: 0\n");
+			System.out.println("=======================================\n");
+		}
+		
+		if (trace != null) {
+			
+			pathIds[0] = traceIds;
+			if (fBound == Integer.MAX_VALUE) {
+				trace.iteration(traceIds++, SearchTrace.DEPTH_LIMIT, depthLimit);
+			}
+			else {
+				trace.iteration(traceIds++, SearchTrace.F_BOUND, fBound);
+			}
+		}
+		
+		if (current.checkSolution()) {
+			
+			return root;
+		}
+		
+		openFrame(order, next, 0, depthLimit, randomMoves);
+		
+		while (true) {
+			
+			// all the children of the current node were visited: we go back to its parent.
+			if (next[depth] == 4) {
+				
+				// if we are back at the root without any solution found, the depth-limited search fails.
+				if (depth == 0) {
+					
+					return null; // equivalent with a failure in the search.
+				}
+				
+				depth--;
+				current.unmove(moves[depth], depth > 0 ? moves[depth - 1] : root.element.getLastMove());
+				continue;
+			}
+			
+			char direction = order[depth * 4 + next[depth]++];
+			
+			if (! current.canMove(direction)) {
+				
+				continue;
+			}
+			
+			// Just for test purposes.
+			String parentDisplay = displayAll ? current.getState() : null;
+			
+			int parentDistance = current.getDistanceToSolution();
+			
+			current.move(direction);
+			moves[depth] = direction;
+			depth++;
+			
+			// In a graph search, a state already reached (with a depth not higher than this one) is a duplicate.
+			// DFS keeps any state it reached before closed, IDS reopens a state reached with a better depth.
+			if (graphSearch && !visited.addIfBetter(current, strategy == 'D' ? 0 : depth)) {
+				
+				duplicatesPruned++;
+				depth--;
+				current.unmove(direction, depth > 0 ? moves[depth - 1] : root.element.getLastMove());
+				continue;
+			}
+			
+			// In IDA*, a node beyond the current f-bound is not entered.
+			if (estimates != null) {
+				
+				estimates[depth] = heuristic.estimateAfterMove(current, direction, estimates[depth - 1], parentDistance);
+				int fValue = depth + withDatabases(current, estimates[depth]);
+				
+				if (fValue > fBound) {
+					
+					nextFBound = Math.min(nextFBound, fValue);
+					depth--;
+					current.unmove(direction, depth > 0 ? moves[depth - 1] : root.element.getLastMove());
+					continue;
+				}
+			}
+			
+			// A node is created (entered) and it is now on the current path.
+			timeComplexity++;
+			currentSpaceComplexity = depth + 1;
+			
+			if (currentSpaceComplexity > spaceComplexity) {
+				spaceComplexity = currentSpaceComplexity;
+			}
+			
+			// The path to a state closer to a solution is built (this only happens a few times per search).
+			if (current.getDistanceToSolution() < best.element.getDistanceToSolution()) {
+				
+				best = pathToNode(moves, depth);
+			}
+			
+			checkBudget(false, depth, bound);
+			
+			// Just for test purposes.
+			if (displayAll) {
+				System.out.println("From Parent on Depth " + (depth - 1) + ":\n\n" + parentDisplay);
+				System.out.println("By performing action : " + direction);
+				System.out.println("We reached the Current State:\n\n" + current.getState());
+				System.out.println("Current Node Depth: " + depth + "\n");
+				System.out.println("=======================================\n");
+			}
+			
+			if (trace != null) {
+				
+				pathIds[depth] = traceIds;
+				trace.node(traceIds++, pathIds[depth - 1], depth, direction, estimates != null ? withDatabases(current, estimates[depth]) : estimate(current));
+			}
+			
+			if (current.checkSolution()) {
+				
+				return pathToNode(moves, depth);
+			}
+			
+			// The move stack grows with the depth of the walk.
+			if (depth == next.length) {
+				
+				moves = Arrays.copyOf(moves, depth * 2);
+				order = Arrays.copyOf(order, depth * 2 * 4);
+				next = Arrays.copyOf(next, depth * 2);
+				
+				if (pathIds != null) {
+					pathIds = Arrays.copyOf(pathIds, depth * 2 + 1);
+				}
+				if (estimates != null) {
+					estimates = Arrays.copyOf(estimates, depth * 2 + 1);
+				}
+			}
+			
+			openFrame(order, next, depth, depthLimit, randomMoves);
+		}
+
+	}
+	
+	
+	// Sets up the moves to be tried from the node at the given depth (none if the depth limit is reached).
+	private void openFrame(char[] order, int[] next, int depth, int depthLimit, boolean randomize) {
+		
+		if (depth >= depthLimit) {
+			
+			next[depth] = 4;
+			return;
+		}
+		
+		if (randomize) {
+			
+			shuffleMoves(possibleMoves, random);
+		}
+		
+		// The last possible move is tried first, as it would be popped first from a stack.
+		for (int i = 0; i < 4; i++) {
+			
+			order[depth * 4 + i] = possibleMoves.get(3 - i);
+		}
+		next[depth] = 0;
+	}
+	
+	
+	// Builds the nodes from the root along the given moves, returning the last one.
+	// Only the nodes of a solution are ever created by the depth-limited search.
+	private Node<SearchState> pathToNode(char[] moves, int length) {
+		
+		Node<SearchState> node = root;
+		
+		for (int i = 0; i < length; i++) {
+			
+			node = new Node<SearchState>(node.element.deriveChild(moves[i]), node);
+		}
+		
+		return node;
+	}
+	
+	
+	// One iteration of IDS or IDA* (a depth-limited search from the initial state), recorded as a Flight Recorder event.
+	private Node<SearchState> iteration(int depthLimit, int fBound, boolean randomMoves, boolean displayAll) {
+		
+		SearchEvents.Iteration event = new SearchEvents.Iteration();
+		event.begin();
+		int nodesBefore = timeComplexity;
+		
+		Node<SearchState> solution = depthLimitedSearch(depthLimit, fBound, randomMoves, displayAll);
+		
+		if (event.shouldCommit()) {
+			
+			event.strategy = strategy;
+			event.bound = (fBound != Integer.MAX_VALUE) ? fBound : depthLimit;
+			event.nodesCreated = timeComplexity - nodesBefore;
+			event.solved = solution != null;
+			event.commit();
+		}
+		
+		return solution;
+	}
+	
+	
+	private Node<SearchState> iterativeDeepeningSearch(boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		Node<SearchState> solution = null;
+		
+		int i = 0;
+		while ((solution=iteration(i, Integer.MAX_VALUE, randomMoves, displayAll)) == null) {
+			
+			// Reinitiate the problem (in terms of space complexity).
+			currentSpaceComplexity = 1; // The root element (initial state) never gets deleted. The space complexity is always restarting from 1. 
+			
+			// Every iteration is a new depth-limited graph search, starting again from the initial state only.
+			if (graphSearch) {
+				visited.clear();
+				visited.addIfBetter(root.element, 0);
+			}
+			
+			++i;
+		}
+		
+		return solution;
+
+	}
+	
+
+	// The lookup walks from the initial state to a solution by always taking a move one step closer to it (as told by the distance database),
+	// so it creates a single node per move of an optimal solution. Random moves only change which of the closer moves is taken.
+	private Node<SearchState> lookupSearch(boolean randomMoves, boolean displayAll) {
+		
+		// A solved initial state (every 1 x 1 grid, which has no database) needs no lookup.
+		if (root.element.checkSolution()) {
+			
+			return root;
+		}
+		
+		if (distanceDatabase == null) {
+			
+			try {
+				distanceDatabase = DistanceDatabase.load(root.element.getDimension(), DistanceDatabase.DEFAULT_DIRECTORY);
+			} catch (IOException e) {
+				throw new UncheckedIOException("The distance database could not be loaded.", e);
+			}
+		}
+		
+		if (distanceDatabase.distance(root.element) < 0) {
+			
+			return null;
+		}
+		
+		Node<SearchState> current = root;
+		
+		while (!current.element.checkSolution()) {
+			
+			if (randomMoves) {
+				
+				shuffleMoves(possibleMoves, random);
+			}
+			
+			Node<SearchState> child = null;
+			
+			for (char direction : possibleMoves) {
+				
+				if (current.element.canMove(direction) && distanceDatabase.leadsCloser(current.element, direction)) {
+					
+					child = new Node<SearchState>(current.element.deriveChild(direction), current);
+					
+					// Just for test purposes.
+					if (displayAll) {
+						System.out.println("By performing action : " + direction + ", we reach the state at the distance " 
+								+ distanceDatabase.distance(child.element) + ":\n\n" + child.element.getState());
+					}
+					
+					break;
+				}
+			}
+			
+			// A state which is not a solution always has a move going closer, unless the database is corrupt (or of another grid).
+			if (child == null) {
+				
+				throw new IllegalStateException("The distance database has no move going closer to the solution from:\n\n" + current.element.getState());
+			}
+			
+			current = child;
+			
+			timeComplexity++;
+			currentSpaceComplexity = spaceComplexity = current.depth + 1;
+			considerBest(current);
+			checkBudget(false, current.depth, -1);
+		}
+		
+		return current;
+	}
+	
+	
+	// IDA* repeats the in-place depth-first walk, cutting off the nodes whose f-value (depth + estimated distance) exceeds a bound.
+	// The first bound is the f-value of the initial state and every new bound is the lowest f-value cut off in the previous iteration,
+	// so the first solution found is an optimal one, while only the current path is kept in memory.
+	private Node<SearchState> iterativeDeepeningASearch(boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		Node<SearchState> solution = null;
+		
+		int fBound = estimate(root.element);
+		int nodesBefore = timeComplexity;
+		
+		while ((solution=iteration(Integer.MAX_VALUE, fBound, randomMoves, displayAll)) == null) {
+			
+			iterationsAnalysis.append("f-bound " + fBound + ": " + (timeComplexity - nodesBefore) + " nodes created\n");
+			
+			// every node was within the bound and no solution was found.
+			if (nextFBound == Integer.MAX_VALUE) {
+				
+				return null;
+			}
+			
+			// Reinitiate the problem (in terms of space complexity).
+			currentSpaceComplexity = 1;
+			
+			// Every iteration is a new graph search, starting again from the initial state only.
+			if (graphSearch) {
+				visited.clear();
+				visited.addIfBetter(root.element, 0);
+			}
+			
+			fBound = nextFBound;
+			nodesBefore = timeComplexity;
+		}
+		
+		iterationsAnalysis.append("f-bound " + fBound + ": " + (timeComplexity - nodesBefore) + " nodes created (solution found)\n");
+		
+		return solution;
+
+	}
+	
+	// The bidirectional BFS searches forward from the initial state and backward from the set of all the solutions at the same time.
+	// A solution only constrains the letters (stacked in column 1), so the backward search starts from every free cell of the agent.
+	// As every move can be undone by the opposite move, the backward search expands its nodes with the same moves as the forward one.
+	// Each direction remembers the states it reached (packed, with the index of their node), and the two searches meet on a common state:
+	// a whole layer of the smaller frontier is expanded at a time and the shortest path through a common state of that layer is returned.
+	private Node<SearchState> bidirectionalSearch(boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		if (root.element.checkSolution()) {
+			
+			return root;
+		}
+		
+		int d = root.element.getDimension();
+		
+		// All the nodes of each direction (indexed by the values kept in the sets of reached states).
+		List<Node<SearchState>> forwardNodes = new ArrayList<Node<SearchState>>();
+		List<Node<SearchState>> backwardNodes = new ArrayList<Node<SearchState>>();
+		PackedStateSet forwardReached = new PackedStateSet(SearchState.packedWords(d));
+		PackedStateSet backwardReached = new PackedStateSet(SearchState.packedWords(d));
+		
+		forwardNodes.add(root);
+		forwardReached.addIfAbsent(root.element, 0);
+		List<Node<SearchState>> forwardLayer = new ArrayList<Node<SearchState>>(forwardNodes);
+		
+		// The letters of a solution (A on row 1, B on row 2, ... all on column 1).
+		int[] solutionPositions = new int[(d - 1) * 2];
+		for (int i = 0; i < d - 1; i++) {
+			solutionPositions[2 * i] = i + 1;
+			solutionPositions[2 * i + 1] = 1;
+		}
+		
+		for (int r = 0; r < d; r++) {
+			for (int c = 0; c < d; c++) {
+				
+				if (c == 1 && r >= 1) {
+					continue;
+				}
+				
+				Node<SearchState> solution = new Node<SearchState>(new SearchState(d, r, c, solutionPositions), null);
+				backwardReached.addIfAbsent(solution.element, backwardNodes.size());
+				backwardNodes.add(solution);
+				
+				timeComplexity++;
+			}
+		}
+		List<Node<SearchState>> backwardLayer = new ArrayList<Node<SearchState>>(backwardNodes);
+		
+		while (!forwardLayer.isEmpty() && !backwardLayer.isEmpty()) {
+			
+			boolean forward = forwardLayer.size() <= backwardLayer.size();
+			
+			List<Node<SearchState>> layer = forward ? forwardLayer : backwardLayer;
+			List<Node<SearchState>> nodes = forward ? forwardNodes : backwardNodes;
+			PackedStateSet reached = forward ? forwardReached : backwardReached;
+			PackedStateSet otherReached = forward ? backwardReached : forwardReached;
+			List<Node<SearchState>> otherNodes = forward ? backwardNodes : forwardNodes;
+			
+			// Just for test purposes.
+			if (displayAll) {
+				System.out.println("Expanding the " + layer.size() + " node(s) on Depth " + layer.get(0).depth + (forward ? " forward" : " backward") + "\n");
+				System.out.println("=======================================\n");
+			}
+			
+			List<Node<SearchState>> nextLayer = new ArrayList<Node<SearchState>>();
+			
+			// The best meeting found in this layer (as a forward and a backward node with the same state).
+			Node<SearchState> meetingForward = null;
+			Node<SearchState> meetingBackward = null;
+			
+			for (Node<SearchState> parent : layer) {
+				
+				if (randomMoves) {
+					
+					shuffleMoves(possibleMoves, random);
+				}
+				
+				for (char direction : possibleMoves) {
+					
+					if (! parent.element.canMove(direction)) {
+						
+						continue;
+					}
+					
+					SearchState childState = parent.element.deriveChild(direction);
+					
+					if (! reached.addIfAbsent(childState, nodes.size())) {
+						
+						duplicatesPruned++;
+						continue;
+					}
+					
+					Node<SearchState> child = new Node<SearchState>(childState, parent);
+					parent.referenced++;
+					nodes.add(child);
+					nextLayer.add(child);
+					
+					timeComplexity++;
+					
+					// The closest state is only taken from the forward search (a backward node has no path from the initial state).
+					if (forward) {
+						considerBest(child);
+					}
+					checkBudget(false, child.depth, -1);
+					
+					int other = otherReached.costOf(childState);
+					
+					if (other >= 0) {
+						
+						Node<SearchState> otherNode = otherNodes.get(other);
+						
+						if (meetingForward == null || child.depth + otherNode.depth < meetingForward.depth + meetingBackward.depth) {
+							
+							meetingForward = forward ? child : otherNode;
+							meetingBackward = forward ? otherNode : child;
+						}
+					}
+				}
+			}
+			
+			currentSpaceComplexity = forwardNodes.size() + backwardNodes.size();
+			if (currentSpaceComplexity > spaceComplexity) {
+				spaceComplexity = currentSpaceComplexity;
+			}
+			
+			if (meetingForward != null) {
+				
+				return joinPaths(meetingForward, meetingBackward);
+			}
+			
+			if (forward) {
+				forwardLayer = nextLayer;
+			}
+			else {
+				backwardLayer = nextLayer;
+			}
+		}
+		
+		return null;
+	}
+	
+	
+	// Continues the forward path with the backward one (from their common state to a solution), by undoing the backward moves.
+	private Node<SearchState> joinPaths(Node<SearchState> forward, Node<SearchState> backward) {
+		
+		Node<SearchState> node = forward;
+		
+		for (Node<SearchState> step = backward; step.parent != null; step = step.parent) {
+			
+			node = new Node<SearchState>(node.element.deriveChild(SearchState.getOppositeMove(step.element.getLastMove())), node);
+		}
+		
+		return node;
+	}
+	
+	
+	// A* keeps its nodes in a NodeStore and their ids in buckets of f-values (or, with a binary heap, Node objects in a PriorityQueue).
+	private Node<SearchState> heuristicASearch(boolean randomMoves, boolean displayAll)
+			 throws OutOfMemoryError {
+		
+		if (binaryHeapFringe) {
+			
+			return binaryHeapASearch(randomMoves, displayAll);
+		}
+		
+		NodeStore nodes = new NodeStore(root.element.getDimension(), true);
+		BucketQueue open = new BucketQueue();
+		ChildSink sink = storeSink(nodes, open);
+		
+		int rootId = nodes.add(root.element, NodeStore.NO_PARENT, 0);
+		nodes.setEstimate(rootId, root.heuristicEstimate);
+		open.offer(rootId, withDatabases(root.element, root.heuristicEstimate), 0);
+		
+		int id;
+		while ((id = open.poll()) >= 0) {
+			
+			SearchState current = nodes.getState(id);
+			
+			// In a graph search, a node whose state was reopened with a better depth meanwhile is stale and skipped.
+			if (graphSearch && visited.costOf(current) < nodes.getDepth(id)) {
+				
+				duplicatesPruned++;
+				releaseIfDead(nodes, id);
+				continue;
+			}
+			
+			if (current.checkSolution()) {
+				
+				return pathToNode(nodes.getPath(id), nodes.getDepth(id));
+			}
+			
+			// Just for test purposes.
+			if (displayAll) {
+				displayStoredNode(nodes, id, current, true);
+			}
+			
+			if (trace != null) {
+				trace.node(id, nodes.getParent(id), nodes.getDepth(id), current.getLastMove(), withDatabases(current, nodes.getEstimate(id)));
+			}
+			
+			considerBest(nodes, id, current);
+			checkBudget(false, nodes.getDepth(id), open.minF);
+			
+			expandStored(id, nodes.getDepth(id), current, randomMoves, sink);
+			releaseIfDead(nodes, id);
+		}
+		
+		return null;
+		
+	}
+	
+	
+	@SuppressWarnings("unchecked")
+	private Node<SearchState> binaryHeapASearch(boolean randomMoves, boolean displayAll)
+			 throws OutOfMemoryError {
+		
+		Queue<Node<SearchState>> open = (Queue<Node<SearchState>>) fringe;
+		Node<SearchState> current = root;
+		SearchState currentState = root.element;		
+		
+		while (! currentState.checkSolution()) {
+			
+			// Just for test purposes.
+			if (displayAll) {
+				if (current.parent != null) {
+					System.out.println("From Parent on Depth " + current.parent.depth + " with the Manhattan distance " + current.parent.element.getDistanceToSolution() + ":\n\n" + current.parent.element.getState());
+					System.out.println("By performing action : " + current.element.getLastMove() + ", we reach a Manhattan distance of " + current.element.getDistanceToSolution());
+					System.out.println("We reached the Current State:\n\n" + current.element.getState());
+				}
+				else {
+					System.out.println("The Initial State is:\n\n" + current.element.getState());
+				}
+				System.out.println("Current Node Depth: " + current.depth + "\n");
+				System.out.println("=======================================\n");
+			}
+			
+			considerBest(current);
+			checkBudget(false, current.depth, current.depth + current.estimate);
+			
+			expand(current, randomMoves);
+
+			current = open.poll();
+			
+			// In a graph search, a node whose state was reopened with a better depth meanwhile is stale and skipped.
+			while (current != null && graphSearch && visited.costOf(current.element) < current.depth) {
+				
+				duplicatesPruned++;
+				current = open.poll();
+			}
+			
+			// An empty fringe: every reachable state was expanded (as with the buckets, no solution).
+			if (current == null) {
+				
+				return null;
+			}
+
+			currentState = current.element;
+
+		}
+		
+		return current;
+		
+	}
+	
+	
+	// The order of the SMA* open list: the lowest f-value first and, within the same f-value, the deepest node first.
+	private final static Comparator<Node<SearchState>> SMA_ORDER = (first, second) -> {
+		
+		if (first.fValue != second.fValue) {
+			return Integer.compare(first.fValue, second.fValue);
+		}
+		if (first.depth != second.depth) {
+			return Integer.compare(second.depth, first.depth);
+		}
+		return Integer.compare(first.sequence, second.sequence);
+	};
+	
+	
+	// SMA* (Simplified Memory-Bounded A*) expands the best node as A* does, but never keeps more than memoryLimit nodes in memory.
+	// When the memory is full, the worst leaf (highest f-value, shallowest) is forgotten and its f-value is backed up into its parent:
+	// the parent remembers the move to the forgotten child and enters the open list again with the lowest f-value of its forgotten children,
+	// so every forgotten subtree keeps a lower bound in the open list and the forgotten children are generated again when it is the best option.
+	// The parent pointers and the referenced counters (children in memory) of the nodes are all that is needed to tell the leaves,
+	// which are also kept (in the same order) in a second set, so the worst one is found without going over the other nodes.
+	// With an admissible heuristic, the solution found is optimal if its path fits in memory (depth < memoryLimit).
+	@SuppressWarnings("unchecked")
+	private Node<SearchState> memoryBoundedASearch(boolean randomMoves, boolean displayAll) 
+			 throws OutOfMemoryError {
+		
+		TreeSet<Node<SearchState>> open = (TreeSet<Node<SearchState>>) fringe;
+		TreeSet<Node<SearchState>> leaves = new TreeSet<Node<SearchState>>(SMA_ORDER);
+		int sequence = 0;
+		
+		root.fValue = withDatabases(root.element, root.heuristicEstimate);
+		root.forgottenF = Integer.MAX_VALUE;
+		root.sequence = sequence++;
+		open.add(root);
+		leaves.add(root);
+		
+		while (! open.isEmpty()) {
+			
+			Node<SearchState> current = open.pollFirst();
+			leaves.remove(current);
+			
+			// every path left is too deep to lead to a solution within the memory limit.
+			if (current.fValue == Integer.MAX_VALUE) {
+				
+				return null;
+			}
+			
+			if (! current.expanded && current.element.checkSolution()) {
+				
+				return current;
+			}
+			
+			// Just for test purposes.
+			if (displayAll) {
+				System.out.println((current.expanded ? "Generating the forgotten children of the node" : "Expanding the node") + " on Depth " + current.depth + " with the f-value " + current.fValue 
+						+ " (" + currentSpaceComplexity + " nodes in memory):\n\n" + current.element.getState());
+				System.out.println("=======================================\n");
+			}
+			
+			considerBest(current);
+			checkBudget(false, current.depth, current.fValue);
+			
+			if (randomMoves) {
+				
+				shuffleMoves(possibleMoves, random);
+			}
+			
+			// The first time, every child is generated; after that, only the forgotten ones.
+			List<Node<SearchState>> children = new ArrayList<Node<SearchState>>(4);
+			
+			for (char direction : possibleMoves) {
+				
+				// undoing the last move only leads back to the parent's state.
+				if (! current.element.canMove(direction) || (current.parent != null && direction == SearchState.getOppositeMove(current.element.getLastMove()))
+						|| (current.expanded && (current.forgottenMoves & moveBit(direction)) == 0)) {
+					
+					continue;
+				}
+				
+				Node<SearchState> child = new Node<SearchState>(current.element.deriveChild(direction), current);
+				child.heuristicEstimate = estimateAfterMove(current.element, current.heuristicEstimate, child.element);
+				child.estimate = withDatabases(child.element, child.heuristicEstimate);
+				child.forgottenF = Integer.MAX_VALUE;
+				child.sequence = sequence++;
+				
+				// A node which is not a solution and cannot have children in memory is useless (its f-value is infinite).
+				if (child.depth >= memoryLimit - 1 && ! child.element.checkSolution()) {
+					
+					child.fValue = Integer.MAX_VALUE;
+				}
+				else {
+					
+					// The f-value of the parent (backed up from the forgotten children) is a lower bound for its children too.
+					child.fValue = Math.max(current.fValue, child.depth + child.estimate);
+				}
+				
+				children.add(child);
+				timeComplexity++;
+			}
+			
+			current.expanded = true;
+			current.forgottenMoves = 0;
+			current.forgottenF = Integer.MAX_VALUE;
+			
+			// Making room for the children by forgetting the worst leaves.
+			while (currentSpaceComplexity + children.size() > memoryLimit && forgetWorstLeaf(open, leaves, current)) {
+			}
+			
+			// If the memory cannot hold all the children (the current path fills it), only the best ones are kept.
+			if (currentSpaceComplexity + children.size() > memoryLimit) {
+				
+				children.sort(SMA_ORDER);
+				
+				int kept = Math.max(memoryLimit - currentSpaceComplexity, 0);
+				for (Node<SearchState> forgotten : children.subList(kept, children.size())) {
+					
+					current.forgottenMoves |= moveBit(forgotten.element.getLastMove());
+					current.forgottenF = Math.min(current.forgottenF, forgotten.fValue);
+				}
+				children = children.subList(0, kept);
+			}
+			
+			for (Node<SearchState> child : children) {
+				
+				open.add(child);
+				leaves.add(child);
+				current.referenced++;
+			}
+			
+			currentSpaceComplexity += children.size();
+			if (currentSpaceComplexity > spaceComplexity) {
+				spaceComplexity = currentSpaceComplexity;
+			}
+			
+			// A node with forgotten children (or without any child, as a useless leaf) goes back to the open list.
+			if (current.forgottenMoves != 0 || children.isEmpty()) {
+				
+				current.fValue = (current.forgottenMoves != 0) ? current.forgottenF : Integer.MAX_VALUE;
+				open.add(current);
+				
+				if (current.referenced == 0) {
+					leaves.add(current);
+				}
+			}
+		}
+		
+		return null;
+	}
+	
+	
+	private static int moveBit(char direction) {
+		
+		return 1 << SearchResult.encodeMove(direction);
+	}
+	
+	
+	// Forgets the worst leaf of the SMA* open list (if there is any), backing up its f-value into its parent.
+	// The node being expanded is not in the open list, so it is only updated (it is put back in the list after its expansion).
+	private boolean forgetWorstLeaf(TreeSet<Node<SearchState>> open, TreeSet<Node<SearchState>> leaves, Node<SearchState> expanding) {
+		
+		// The root is never a leaf here: it is alone in memory only while it is expanded.
+		Node<SearchState> worst = leaves.pollLast();
+		
+		if (worst == null) {
+			
+			return false;
+		}
+		
+		open.remove(worst);
+		currentSpaceComplexity--;
+		
+		Node<SearchState> parent = worst.parent;
+		
+		// The parent is keyed by the lowest f-value of its forgotten children in the open list (and it may become a leaf).
+		if (parent != expanding) {
+			open.remove(parent);
+		}
+		
+		parent.referenced--;
+		parent.forgottenMoves |= moveBit(worst.element.getLastMove());
+		parent.forgottenF = Math.min(parent.forgottenF, worst.fValue);
+		
+		if (parent != expanding) {
+			
+			parent.fValue = parent.forgottenF;
+			open.add(parent);
+			
+			if (parent.referenced == 0) {
+				leaves.add(parent);
+			}
+		}
+		
+		return true;
+	}
+}
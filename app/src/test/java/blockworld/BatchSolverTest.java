@@ -0,0 +1,49 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BatchSolverTest {
+
+	// A 1 x 1 grid has no distance database, but it is solved from the start by the strategies which need one for the larger grids.
+	@Test
+	public void singleCellInstancesAreSolved(@TempDir File directory) throws IOException, InterruptedException {
+
+		File instances = new File(directory, "instances.txt");
+		Files.write(instances.toPath(), Arrays.asList("1", "1 0 0"));
+
+		for (String[] options : new String[][] {{"--strategy", "L"}, {"--strategy", "A", "--exact"}}) {
+
+			BatchSolver batch = new BatchSolver();
+			batch.parseArguments(concat(options, "--format", "csv", "--threads", "1", instances.getPath()));
+
+			StringWriter results = new StringWriter();
+			batch.run(results);
+
+			String[] lines = results.toString().split("\n");
+
+			assertEquals(3, lines.length, results.toString());
+			for (int i = 1; i < lines.length; i++) {
+				assertTrue(lines[i].contains(",SOLVED,"), lines[i]);
+			}
+		}
+	}
+
+
+	private static String[] concat(String[] first, String... second) {
+
+		String[] all = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, all, first.length, second.length);
+
+		return all;
+	}
+
+}
@@ -0,0 +1,134 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DistanceDatabaseTest {
+
+	@TempDir
+	static File databases;
+
+
+	// Every index of the 2 x 2 to 4 x 4 grids is the rank of distinct positions which rank back to it.
+	@Test
+	public void rankIsTheReverseOfUnrank() {
+
+		for (int d = 2; d <= 4; d++) {
+
+			int cells = d * d;
+			int[] positions = new int[d];
+
+			for (int index = 0; index < DistanceDatabase.statesCount(d); index++) {
+
+				DistanceDatabase.unrank(index, positions, cells);
+
+				boolean[] taken = new boolean[cells];
+				for (int cell : positions) {
+
+					assertFalse(taken[cell], "index " + index);
+					taken[cell] = true;
+				}
+
+				assertEquals(index, DistanceDatabase.rank(positions, cells));
+			}
+		}
+	}
+
+
+	// The exact distances are the depths of the shortest solutions (found by a BFS graph search).
+	@Test
+	public void distancesAreTheShortestSolutions() throws IOException {
+
+		SplittableRandom random = new SplittableRandom(7);
+
+		for (int d = 2; d <= 4; d++) {
+
+			DistanceDatabase database = DistanceDatabase.load(d, databases);
+
+			for (int i = 0; i < 20; i++) {
+
+				SearchState state = TreeSearchTest.walk(TreeSearchTest.solved(d), random.nextInt(12), random);
+
+				TreeSearch treeSearch = new TreeSearch('B');
+				treeSearch.setGraphSearch(true);
+
+				int depth = treeSearch.solve(state, false, false).getSolutionDepth();
+
+				// The second lookup finds the distance in the cache, and the neighbours are one move closer or further (or as close).
+				assertEquals(depth, database.distance(state));
+				assertEquals(depth, database.distance(state));
+
+				for (char direction : "ULDR".toCharArray()) {
+					if (state.canMove(direction)) {
+
+						treeSearch = new TreeSearch('B');
+						treeSearch.setGraphSearch(true);
+
+						SearchState child = state.deriveChild(direction);
+						int childDepth = treeSearch.solve(child, false, false).getSolutionDepth();
+
+						assertEquals(childDepth, database.distance(child));
+						assertTrue(Math.abs(childDepth - depth) <= 1);
+					}
+				}
+			}
+
+			assertEquals(0, database.distance(TreeSearchTest.solved(d)));
+		}
+	}
+
+
+	// The lookup only creates the nodes of the shortest solution it walks, whichever of the closer moves it takes.
+	@Test
+	public void lookupsWalkAShortestSolution() throws IOException {
+
+		SplittableRandom random = new SplittableRandom(5);
+
+		for (int d = 2; d <= 4; d++) {
+
+			DistanceDatabase database = DistanceDatabase.load(d, databases);
+
+			for (int i = 0; i < 20; i++) {
+
+				SearchState state = TreeSearchTest.walk(TreeSearchTest.solved(d), random.nextInt(12), random);
+
+				TreeSearch treeSearch = new TreeSearch('L');
+				treeSearch.setDistanceDatabase(database);
+				treeSearch.setRandom(new SplittableRandom(i));
+
+				SearchResult result = treeSearch.solve(state, i % 2 == 0, false);
+
+				assertTrue(result.isSolved());
+				assertEquals(database.distance(state), result.getSolutionDepth());
+				assertEquals(result.getSolutionDepth() + 1, result.getNodesCreated());
+			}
+		}
+	}
+
+
+	// A database is loaded once from a directory, and a directory of its own gets another database.
+	@Test
+	public void databasesAreLoadedOncePerDirectory(@TempDir File otherDatabases) throws IOException {
+
+		DistanceDatabase database = DistanceDatabase.load(2, databases);
+
+		assertSame(database, DistanceDatabase.load(2, new File(databases, ".")));
+		assertNotSame(database, DistanceDatabase.load(2, otherDatabases));
+		assertTrue(new File(otherDatabases, "dist-2x2.bin").isFile());
+	}
+
+
+	@Test
+	public void onlySmallGridsHaveADatabase() {
+
+		assertThrows(IllegalArgumentException.class, () -> DistanceDatabase.load(1, databases));
+		assertThrows(IllegalArgumentException.class, () -> DistanceDatabase.load(DistanceDatabase.MAX_DIMENSION + 1, databases));
+	}
+
+}
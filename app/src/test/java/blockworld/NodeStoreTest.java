@@ -0,0 +1,39 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class NodeStoreTest {
+
+	// A node left without children is released with the ancestors it leaves without children, the root and its other branches are kept.
+	@Test
+	public void deadBranchesAreReleased() {
+
+		SearchState root = new SearchState(3);
+		NodeStore nodes = new NodeStore(3);
+
+		int rootId = nodes.add(root, NodeStore.NO_PARENT, 0);
+		int up = nodes.add(root.deriveChild('U'), rootId, 1);
+		int left = nodes.add(root.deriveChild('L'), rootId, 1);
+		int upLeft = nodes.add(root.deriveChild('U').deriveChild('L'), up, 2);
+
+		assertEquals(2, nodes.getChildren(rootId));
+		assertEquals(0, nodes.release(up));
+		assertEquals(4, nodes.live());
+
+		assertEquals(2, nodes.release(upLeft));
+		assertEquals(2, nodes.live());
+		assertEquals(1, nodes.getChildren(rootId));
+
+		assertEquals(1, nodes.release(left));
+		assertEquals(0, nodes.release(rootId));
+		assertEquals(1, nodes.live());
+
+		// The released nodes are still readable (for the paths and the traces).
+		assertEquals(4, nodes.size());
+		assertArrayEquals(new char[] {'U', 'L'}, nodes.getPath(upLeft));
+		assertEquals(root.deriveChild('U').deriveChild('L').getState(), nodes.getState(upLeft).getState());
+	}
+
+}
@@ -0,0 +1,90 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class PackedStateSetTest {
+
+	// A state reached again with a lower cost is reopened, with a cost not lower it is a duplicate.
+	@Test
+	public void statesAreReopenedOnlyWithALowerCost() {
+
+		SearchState state = new SearchState(4);
+		PackedStateSet set = new PackedStateSet(SearchState.packedWords(4));
+
+		assertEquals(-1, set.costOf(state));
+		assertTrue(set.addIfBetter(state, 5));
+		assertFalse(set.addIfBetter(state, 5));
+		assertFalse(set.addIfBetter(state, 7));
+		assertEquals(5, set.costOf(state));
+
+		assertTrue(set.addIfBetter(state, 3));
+		assertEquals(3, set.costOf(state));
+		assertEquals(1, set.size());
+
+		assertFalse(set.addIfAbsent(state, 0));
+		assertEquals(3, set.costOf(state));
+	}
+
+
+	// The same grid reached by another path (here, a move and its opposite) is the same state, whatever its last move.
+	@Test
+	public void statesAreKeyedByTheGridAlone() {
+
+		for (int d : new int[] {4, 10, 17}) {
+
+			SearchState state = new SearchState(d);
+			SearchState back = state.deriveChild('U').deriveChild('D');
+
+			PackedStateSet set = new PackedStateSet(SearchState.packedWords(d));
+
+			assertTrue(set.addIfAbsent(state, 1));
+			assertFalse(set.addIfAbsent(back, 2));
+			assertEquals(1, set.costOf(back));
+			assertEquals(-1, set.costOf(back.deriveChild('U')));
+		}
+	}
+
+
+	// Enough states to grow the table several times, on grids with a single and with several packed words.
+	@Test
+	public void statesAreKeptWhenTheTableGrows() {
+
+		for (int d : new int[] {4, 10}) {
+
+			PackedStateSet set = new PackedStateSet(SearchState.packedWords(d));
+			List<SearchState> added = new ArrayList<SearchState>();
+
+			SplittableRandom random = new SplittableRandom(d);
+			SearchState state = new SearchState(d);
+
+			for (int i = 0; i < 20000; i++) {
+
+				char direction = "ULDR".charAt(random.nextInt(4));
+				if (!state.canMove(direction)) {
+					continue;
+				}
+
+				state = state.deriveChild(direction);
+				if (set.addIfAbsent(state, added.size())) {
+					added.add(state);
+				}
+			}
+
+			assertEquals(added.size(), set.size());
+			for (int i = 0; i < added.size(); i++) {
+				assertEquals(i, set.costOf(added.get(i)));
+			}
+
+			set.clear();
+			assertEquals(0, set.size());
+			assertEquals(-1, set.costOf(added.get(0)));
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PatternDatabaseTest {
+
+	@TempDir
+	static File databases;
+
+
+	// The database of a grid up to 5 x 5 keeps the agent and every letter: a byte per placement, after the header.
+	@Test
+	public void databasesKeepEveryPlacement() throws IOException {
+
+		for (int d = 2; d <= 4; d++) {
+
+			PatternDatabase database = PatternDatabase.load(d, databases);
+
+			long entries = 1;
+			for (int i = 0; i < d; i++) {
+				entries *= d * d;
+			}
+
+			assertEquals(3 * Integer.BYTES + entries, new File(databases, "pdb-" + d + "x" + d + ".bin").length());
+			assertEquals(d, database.getDimension());
+			assertSame(database, PatternDatabase.load(d, databases));
+		}
+	}
+
+
+	// The estimates never exceed the depths of the shortest solutions (found by a BFS graph search): up to 5 x 5, every letter is kept,
+	// so they are these depths.
+	@Test
+	public void estimatesAreAdmissible() throws IOException {
+
+		SplittableRandom random = new SplittableRandom(11);
+
+		for (int d = 2; d <= 4; d++) {
+
+			PatternDatabase database = PatternDatabase.load(d, databases);
+
+			assertEquals(0, database.estimate(TreeSearchTest.solved(d)));
+
+			for (int i = 0; i < 20; i++) {
+
+				SearchState state = TreeSearchTest.walk(TreeSearchTest.solved(d), random.nextInt(12), random);
+
+				TreeSearch treeSearch = new TreeSearch('B');
+				treeSearch.setGraphSearch(true);
+
+				int depth = treeSearch.solve(state, false, false).getSolutionDepth();
+
+				assertEquals(depth, database.estimate(state));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+// The packed form of the states (see SearchState.writePacked) and the moves applied to it.
+public class SearchStateTest {
+
+	@Test
+	public void packedStatesRoundTrip() {
+
+		for (int d = 2; d <= 8; d++) {
+			assertRoundTrips(d, 2000);
+		}
+	}
+
+
+	@Test
+	public void unmoveRestoresTheState() {
+
+		for (int d = 2; d <= 8; d++) {
+			assertUnmoves(d, 2000);
+		}
+	}
+
+
+	// The grids on both sides of every change of the packed layout: a single long up to 9 x 9, fields of a byte up to 16 x 16
+	// (the layout of the traces and caches written before larger grids were supported) and fields of 9 and 10 bits above that.
+	@Test
+	public void packedStatesRoundTripAtTheLayoutBoundaries() {
+
+		int[] dimensions = {9, 10, 16, 17, 32};
+		int[] words = {1, 2, 2, 3, 6};
+
+		for (int i = 0; i < dimensions.length; i++) {
+
+			assertEquals(words[i], SearchState.packedWords(dimensions[i]), dimensions[i] + " x " + dimensions[i]);
+			assertRoundTrips(dimensions[i], 20000);
+			assertUnmoves(dimensions[i], 20000);
+		}
+	}
+
+
+	// The solution is read from the packed cells of the letters: pushing the first letter out of its cell (the agent walks left above
+	// it and moves down) leaves the state one move from the solution.
+	@Test
+	public void solutionsAreReadFromThePackedCells() {
+
+		for (int d : new int[] {2, 3, 8, 9, 10, 16, 17, 32}) {
+
+			SearchState state = TreeSearchTest.solved(d);
+
+			assertTrue(state.checkSolution(), d + " x " + d);
+			assertEquals(0, state.getDistanceToSolution(), d + " x " + d);
+
+			while (state.getAgentCell() % d > 1) {
+				state.move('L');
+			}
+			assertTrue(state.checkSolution(), d + " x " + d);
+
+			state.move('D');
+
+			assertFalse(state.checkSolution(), d + " x " + d);
+			assertEquals(1, state.getDistanceToSolution(), d + " x " + d);
+			assertTrue(state.deriveChild('U').checkSolution(), d + " x " + d);
+		}
+	}
+
+
+	@Test
+	public void invalidGridsAreRejected() {
+
+		assertThrows(IllegalArgumentException.class, () -> new SearchState(0));
+		assertThrows(IllegalArgumentException.class, () -> new SearchState(SearchState.MAX_DIMENSION + 1));
+		assertThrows(IllegalArgumentException.class, () -> new SearchState(3, 0, 0, 0, 0, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new SearchState(3, 0, 0, 1, 1));
+	}
+
+
+	// Walks randomly over a d x d grid: every state reached is packed, rebuilt and compared with the one derived from its parent
+	// (the rendering, the Manhattan distance and the packed form itself).
+	static void assertRoundTrips(int d, int moves) {
+
+		SplittableRandom random = new SplittableRandom(d);
+		SearchState state = new SearchState(d);
+
+		long[] packed = new long[SearchState.packedWords(d) + 1];
+		long[] repacked = new long[packed.length];
+
+		for (int i = 0; i < moves; i++) {
+
+			char direction = "ULDR".charAt(random.nextInt(4));
+			if (!state.canMove(direction)) {
+				continue;
+			}
+
+			state = state.deriveChild(direction);
+			state.writePacked(packed, 1);
+
+			SearchState rebuilt = SearchState.readPacked(d, packed, 1, direction);
+			rebuilt.writePacked(repacked, 1);
+
+			assertEquals(state.getState(), rebuilt.getState(), d + " x " + d);
+			assertEquals(state.getDistanceToSolution(), rebuilt.getDistanceToSolution(), d + " x " + d);
+			assertEquals(state.getAgentCell(), rebuilt.getAgentCell(), d + " x " + d);
+			assertEquals(direction, rebuilt.getLastMove());
+			assertArrayEquals(packed, repacked, d + " x " + d);
+		}
+	}
+
+
+	// Moves a single state in place and undoes every other move: the state needs to come back to the one before the move.
+	static void assertUnmoves(int d, int moves) {
+
+		SplittableRandom random = new SplittableRandom(d);
+		SearchState state = new SearchState(d);
+
+		for (int i = 0; i < moves; i++) {
+
+			char direction = "ULDR".charAt(random.nextInt(4));
+			if (!state.canMove(direction)) {
+				continue;
+			}
+
+			SearchState before = state.clone();
+			char previousMove = state.getLastMove();
+
+			state.move(direction);
+			assertEquals(before.deriveChild(direction).getState(), state.getState(), d + " x " + d);
+
+			if (random.nextBoolean()) {
+
+				state.unmove(direction, previousMove);
+
+				assertEquals(before.getState(), state.getState(), d + " x " + d);
+				assertEquals(before.getDistanceToSolution(), state.getDistanceToSolution(), d + " x " + d);
+				assertEquals(previousMove, state.getLastMove());
+			}
+		}
+	}
+
+}
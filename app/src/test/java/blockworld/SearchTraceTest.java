@@ -0,0 +1,90 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SearchTraceTest {
+
+	// A traced search replays as the verbose text the same search displays (the nodes in the same order, with the same parents).
+	@Test
+	public void tracesReplayAsTheVerboseDisplay(@TempDir File directory) throws IOException {
+
+		SearchState initial = new SearchState(3, 0, 0, 2, 2, 1, 2);
+
+		for (char strategy : "BDIAF".toCharArray()) {
+
+			File file = new File(directory, strategy + ".trace");
+
+			TreeSearch traced = new TreeSearch(strategy);
+			traced.setGraphSearch(strategy == 'D');
+			traced.setTraceFile(file);
+
+			SearchResult result = traced.solve(initial, false, false);
+
+			StringBuilder replay = new StringBuilder();
+			SearchTraceReader.replay(file, replay);
+
+			TreeSearch verbose = new TreeSearch(strategy);
+			verbose.setGraphSearch(strategy == 'D');
+			verbose.setQuiet(true);
+
+			assertEquals(verbose(verbose, initial), replay.toString(), String.valueOf(strategy));
+			assertTrue(result.isSolved(), String.valueOf(strategy));
+		}
+	}
+
+
+	// The searches which do not trace their nodes reject a trace file instead of writing an empty trace.
+	@Test
+	public void untracedSearchesRejectTheTraceFile(@TempDir File directory) {
+
+		SearchState initial = new SearchState(3);
+
+		for (char strategy : "TML".toCharArray()) {
+
+			TreeSearch treeSearch = new TreeSearch(strategy);
+			treeSearch.setTraceFile(new File(directory, strategy + ".trace"));
+
+			assertThrows(IllegalStateException.class, () -> treeSearch.solve(initial, false, false), String.valueOf(strategy));
+		}
+
+		TreeSearch parallel = new TreeSearch('B');
+		parallel.setParallelism(2);
+		parallel.setTraceFile(new File(directory, "parallel.trace"));
+
+		assertThrows(IllegalStateException.class, () -> parallel.solve(initial, false, false));
+
+		TreeSearch binaryHeap = new TreeSearch('A');
+		binaryHeap.setBinaryHeapFringe(true);
+		binaryHeap.setTraceFile(new File(directory, "heap.trace"));
+
+		assertThrows(IllegalStateException.class, () -> binaryHeap.solve(initial, false, false));
+		assertEquals(0, directory.list().length);
+	}
+
+
+	// The text displayed by the search (quiet, so only its nodes are printed).
+	private static String verbose(TreeSearch treeSearch, SearchState initial) throws IOException {
+
+		PrintStream standardOut = System.out;
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+
+		System.setOut(new PrintStream(text, true, "UTF-8"));
+		try {
+			treeSearch.solve(initial, false, true);
+		}
+		finally {
+			System.setOut(standardOut);
+		}
+
+		return text.toString("UTF-8");
+	}
+
+}
@@ -0,0 +1,205 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SolutionCacheTest {
+
+	private final static String SETTINGS = "graph=false";
+
+
+	// A result stored by a cache is found (with the same analysis) by a cache opened later on the same file.
+	@Test
+	public void resultsAreReadBackFromTheFile(@TempDir File directory) throws IOException {
+
+		File file = new File(directory, "solutions.bin");
+		SearchState initial = new SearchState(3);
+		SearchResult solved = new TreeSearch('A').solve(initial, false, false);
+
+		try (SolutionCache cache = new SolutionCache(file, 1)) {
+
+			assertNull(cache.get(initial, 'A', SETTINGS));
+			cache.put(initial, SETTINGS, solved);
+		}
+
+		// A capacity of 1 keeps the second result in memory, so the first one is read from the file.
+		try (SolutionCache cache = new SolutionCache(file, 1)) {
+
+			assertEquals(1, cache.size());
+			cache.put(new SearchState(2), SETTINGS, new TreeSearch('A').solve(new SearchState(2), false, false));
+
+			assertSameResult(solved, cache.get(initial, 'A', SETTINGS));
+			assertNull(cache.get(initial, 'B', SETTINGS));
+			assertNull(cache.get(initial, 'A', "graph=true"));
+			assertNull(cache.get(new SearchState(3, 0, 0, 2, 2, 1, 2), 'A', SETTINGS));
+		}
+	}
+
+
+	// A record cut short (a process stopped while writing it) is dropped, and the next record takes its place.
+	@Test
+	public void aRecordCutShortIsDropped(@TempDir File directory) throws IOException {
+
+		File file = new File(directory, "solutions.bin");
+		SearchState initial = new SearchState(3);
+		SearchResult solved = new TreeSearch('A').solve(initial, false, false);
+
+		try (SolutionCache cache = new SolutionCache(file, 16)) {
+			cache.put(initial, SETTINGS, solved);
+		}
+
+		long length = file.length();
+
+		try (FileOutputStream out = new FileOutputStream(file, true)) {
+			out.write(new byte[] {0, 0, 1, 0, 42, 42, 42});
+		}
+
+		try (SolutionCache cache = new SolutionCache(file, 16)) {
+
+			assertEquals(length, file.length());
+			assertEquals(1, cache.size());
+			assertSameResult(solved, cache.get(initial, 'A', SETTINGS));
+
+			cache.put(new SearchState(2), SETTINGS, new TreeSearch('B').solve(new SearchState(2), false, false));
+		}
+
+		try (SolutionCache cache = new SolutionCache(file, 16)) {
+
+			assertEquals(2, cache.size());
+			assertEquals(0, cache.getStaleRecords());
+		}
+	}
+
+
+	// A record written by another version of its strategy (or of the packed layout) is counted as stale and never returned.
+	@Test
+	public void staleRecordsAreIgnored(@TempDir File directory) throws IOException {
+
+		File file = new File(directory, "solutions.bin");
+		SearchState initial = new SearchState(3);
+
+		try (SolutionCache cache = new SolutionCache(file, 16)) {
+			cache.put(initial, SETTINGS, new TreeSearch('A').solve(initial, false, false));
+		}
+
+		// The version follows the header, the length of the record and the strategy.
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+
+			out.seek(Integer.BYTES + Integer.BYTES + Character.BYTES);
+			assertEquals(SolutionCache.recordVersion('A'), out.readInt());
+
+			out.seek(Integer.BYTES + Integer.BYTES + Character.BYTES);
+			out.writeInt(1);
+		}
+
+		try (SolutionCache cache = new SolutionCache(file, 16)) {
+
+			assertEquals(0, cache.size());
+			assertEquals(1, cache.getStaleRecords());
+			assertNull(cache.get(initial, 'A', SETTINGS));
+		}
+	}
+
+
+	// A record of an unknown strategy (a corrupt record) is counted as stale too, and the records after it are still used.
+	@Test
+	public void unknownStrategiesAreStale(@TempDir File directory) throws IOException {
+
+		File file = new File(directory, "solutions.bin");
+		SearchState initial = new SearchState(3);
+
+		try (SolutionCache cache = new SolutionCache(file, 16)) {
+			cache.put(initial, SETTINGS, new TreeSearch('A').solve(initial, false, false));
+			cache.put(new SearchState(2), SETTINGS, new TreeSearch('B').solve(new SearchState(2), false, false));
+		}
+
+		// The strategy follows the header and the length of the record.
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+
+			out.seek(Integer.BYTES + Integer.BYTES);
+			assertEquals('A', out.readChar());
+
+			out.seek(Integer.BYTES + Integer.BYTES);
+			out.writeChar('?');
+		}
+
+		try (SolutionCache cache = new SolutionCache(file, 16)) {
+
+			assertEquals(1, cache.size());
+			assertEquals(1, cache.getStaleRecords());
+			assertNull(cache.get(initial, 'A', SETTINGS));
+			assertNotNull(cache.get(new SearchState(2), 'B', SETTINGS));
+		}
+	}
+
+
+	// The solver reuses the solved results, but neither caches the random searches nor the searches stopped by a budget.
+	@Test
+	public void solversCacheOnlyTheReproducibleResults(@TempDir File directory) throws IOException {
+
+		try (SolutionCache cache = new SolutionCache(new File(directory, "solutions.bin"), 16)) {
+
+			BlockworldPuzzleSolver solver = new BlockworldPuzzleSolver(3, 'A', false, false, false, false);
+			solver.setSolutionCache(cache);
+
+			SearchResult solved = solver.solveResult();
+
+			assertEquals(1, cache.size());
+			assertSameResult(solved, solver.solveResult());
+
+			BlockworldPuzzleSolver random = new BlockworldPuzzleSolver(3, 'B', false, true, false, false);
+			random.setSolutionCache(cache);
+			random.setRandomSeed(1L);
+
+			assertFalse(random.solveResult().isCached());
+			assertFalse(random.solveResult().isCached());
+
+			BlockworldPuzzleSolver stopped = new BlockworldPuzzleSolver(4, 'B', false, false, false, false);
+			stopped.setSolutionCache(cache);
+			stopped.setMaxNodes(100);
+
+			assertEquals(SearchResult.Termination.NODE_BUDGET, stopped.solveResult().getTermination());
+			assertFalse(stopped.solveResult().isCached());
+			assertEquals(1, cache.size());
+		}
+	}
+
+
+	@Test
+	public void otherFilesAreRejected(@TempDir File directory) throws IOException {
+
+		File file = new File(directory, "solutions.bin");
+
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(new byte[] {1, 2, 3, 4, 5, 6});
+		}
+
+		assertThrows(IOException.class, () -> new SolutionCache(file, 16));
+	}
+
+
+	// The result read back is the one stored, marked as cached (in the report too).
+	private static void assertSameResult(SearchResult expected, SearchResult actual) {
+
+		assertNotNull(actual);
+		assertFalse(expected.isCached());
+		assertTrue(actual.isCached());
+		assertEquals(expected.getStrategy(), actual.getStrategy());
+		assertEquals(expected.getTermination(), actual.getTermination());
+		assertArrayEquals(expected.getMoves(), actual.getMoves());
+		assertEquals(expected.getNodesCreated(), actual.getNodesCreated());
+		assertEquals(expected.getPeakNodes(), actual.getPeakNodes());
+		assertEquals(expected.getPeakLiveNodes(), actual.getPeakLiveNodes());
+		assertEquals(expected.getHeuristic(), actual.getHeuristic());
+		assertEquals(expected.asCached().toReport(true), actual.toReport(true));
+		assertTrue(actual.toReport(false).contains("(cached result"));
+	}
+
+}
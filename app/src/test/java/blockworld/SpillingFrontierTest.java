@@ -0,0 +1,77 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SpillingFrontierTest {
+
+	// Small segments, the first ones off-heap and the next ones spilled to files: every record needs to come back as it was added.
+	@Test
+	public void recordsAreKeptAcrossSegments(@TempDir File spillDirectory) {
+
+		int d = 4;
+		int recordBytes = SearchState.packedWords(d) * Long.BYTES + Long.BYTES + Integer.BYTES + 1;
+
+		try (SpillingFrontier frontier = new SpillingFrontier(d, 10 * recordBytes, 30 * recordBytes, spillDirectory)) {
+
+			List<SearchState> states = new ArrayList<SearchState>();
+			SplittableRandom random = new SplittableRandom(1);
+			SearchState state = new SearchState(d);
+
+			frontier.add(state, SpillingFrontier.NO_PARENT, 0);
+			states.add(state);
+
+			while (states.size() < 250) {
+
+				char direction = "ULDR".charAt(random.nextInt(4));
+				if (!state.canMove(direction)) {
+					continue;
+				}
+
+				state = state.deriveChild(direction);
+				frontier.add(state, states.size() - 1, states.size());
+				states.add(state);
+			}
+
+			// 25 segments of 10 records, 3 of them off-heap.
+			assertEquals(22, spillDirectory.listFiles().length);
+			assertEquals(250, frontier.size());
+
+			for (int i = 0; i < states.size(); i++) {
+
+				assertEquals(i, frontier.poll());
+				assertEquals(states.get(i).getState(), frontier.getState(i).getState());
+				assertEquals(i - 1, frontier.getParent(i));
+				assertEquals(i, frontier.getDepth(i));
+				assertEquals(states.get(i).getLastMove(), frontier.getLastMove(i));
+			}
+
+			assertTrue(frontier.isEmpty());
+			assertEquals(-1, frontier.poll());
+			assertEquals(250, frontier.stored());
+
+			// The path of the last node is the random walk.
+			char[] path = frontier.getPath(249);
+			for (int i = 0; i < path.length; i++) {
+				assertEquals(states.get(i + 1).getLastMove(), path[i]);
+			}
+		}
+
+		assertEquals(0, spillDirectory.listFiles().length);
+	}
+
+
+	@Test
+	public void segmentsNeedToHoldARecord(@TempDir File spillDirectory) {
+
+		assertThrows(IllegalArgumentException.class, () -> new SpillingFrontier(4, 8, 0, spillDirectory));
+	}
+
+}
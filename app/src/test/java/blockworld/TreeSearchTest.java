@@ -0,0 +1,474 @@
+package blockworld;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Every strategy on a corpus of small puzzles: the optimal strategies need to find solutions as short as the ones of a BFS graph search,
+// and every solution (or closest state) returned needs to replay from the initial state.
+public class TreeSearchTest {
+
+	// The strategies returning a shortest solution (DFS only returns a valid one).
+	private final static String OPTIMAL_STRATEGIES = "BIAFTML";
+
+	@TempDir
+	static File databases;
+
+	// The puzzles (2 x 2 to 4 x 4) and the depth of their shortest solution.
+	private static List<SearchState> corpus;
+	private static List<Integer> depths;
+
+
+	@BeforeAll
+	static void buildCorpus() {
+
+		corpus = new ArrayList<SearchState>();
+		SplittableRandom random = new SplittableRandom(42);
+
+		corpus.add(new SearchState(2));
+		corpus.add(new SearchState(3));
+		corpus.add(new SearchState(3, 0, 0, 2, 2, 1, 2));
+
+		for (int moves = 2; moves <= 10; moves += 2) {
+
+			corpus.add(walk(solved(3), moves, random));
+			corpus.add(walk(solved(4), moves, random));
+		}
+
+		depths = new ArrayList<Integer>();
+		for (SearchState initial : corpus) {
+			depths.add(shortestDepth(initial));
+		}
+	}
+
+
+	@Test
+	public void optimalStrategiesFindShortestSolutions() throws IOException {
+
+		for (char strategy : OPTIMAL_STRATEGIES.toCharArray()) {
+			for (int i = 0; i < corpus.size(); i++) {
+
+				SearchState initial = corpus.get(i);
+
+				TreeSearch treeSearch = new TreeSearch(strategy);
+				if (strategy == 'L') {
+					treeSearch.setDistanceDatabase(DistanceDatabase.load(initial.getDimension(), databases));
+				}
+
+				SearchResult result = treeSearch.solve(initial, false, false);
+
+				assertTrue(result.isSolved(), strategy + " on puzzle " + i);
+				assertEquals((int) depths.get(i), result.getSolutionDepth(), strategy + " on puzzle " + i);
+				assertReplays(initial, result);
+			}
+		}
+
+		// A* and IDA* with the pattern database as heuristic.
+		for (char strategy : "AF".toCharArray()) {
+			for (int i = 0; i < corpus.size(); i++) {
+
+				SearchState initial = corpus.get(i);
+
+				TreeSearch treeSearch = new TreeSearch(strategy);
+				treeSearch.setPatternDatabase(PatternDatabase.load(initial.getDimension(), databases));
+
+				SearchResult result = treeSearch.solve(initial, false, false);
+
+				assertEquals((int) depths.get(i), result.getSolutionDepth(), strategy + " with the pattern database on puzzle " + i);
+				assertReplays(initial, result);
+			}
+		}
+
+		// A* with the binary heap instead of the buckets of f-values, as a tree and as a graph search.
+		for (boolean graphSearch : new boolean[] {false, true}) {
+			for (int i = 0; i < corpus.size(); i++) {
+
+				TreeSearch treeSearch = new TreeSearch('A');
+				treeSearch.setBinaryHeapFringe(true);
+				treeSearch.setGraphSearch(graphSearch);
+
+				SearchResult result = treeSearch.solve(corpus.get(i), false, false);
+
+				assertEquals((int) depths.get(i), result.getSolutionDepth(), "A* with a binary heap on puzzle " + i);
+				assertReplays(corpus.get(i), result);
+			}
+		}
+	}
+
+
+	@Test
+	public void graphSearchesFindShortestSolutions() {
+
+		for (char strategy : "BIA".toCharArray()) {
+			for (int i = 0; i < corpus.size(); i++) {
+
+				TreeSearch treeSearch = new TreeSearch(strategy);
+				treeSearch.setGraphSearch(true);
+
+				SearchResult result = treeSearch.solve(corpus.get(i), false, false);
+
+				assertEquals((int) depths.get(i), result.getSolutionDepth(), strategy + " on puzzle " + i);
+				assertReplays(corpus.get(i), result);
+			}
+		}
+	}
+
+
+	// The dead branches released by a graph search stay in the node store: they count in the space complexity, not in the live nodes.
+	@Test
+	public void releasedNodesStillCountInTheSpaceComplexity() {
+
+		for (char strategy : "BA".toCharArray()) {
+
+			TreeSearch treeSearch = new TreeSearch(strategy);
+			treeSearch.setGraphSearch(true);
+
+			SearchResult result = treeSearch.solve(new SearchState(4), false, false);
+
+			assertEquals(result.getNodesCreated(), result.getPeakNodes(), String.valueOf(strategy));
+			assertTrue(result.getPeakLiveNodes() < result.getPeakNodes(), String.valueOf(strategy));
+		}
+	}
+
+
+	@Test
+	public void depthFirstGraphSearchFindsValidSolutions() {
+
+		for (SearchState initial : corpus) {
+
+			TreeSearch treeSearch = new TreeSearch('D');
+			treeSearch.setGraphSearch(true);
+
+			SearchResult result = treeSearch.solve(initial, false, false);
+
+			assertTrue(result.isSolved());
+			assertReplays(initial, result);
+		}
+	}
+
+
+	// DFS, IDS and IDA* walk a single copy of the root (moved and moved back): the state given to them is left as it was.
+	@Test
+	public void depthFirstSearchesLeaveTheInitialStateUnchanged() {
+
+		for (char strategy : "DIF".toCharArray()) {
+			for (SearchState initial : corpus) {
+
+				SearchState before = initial.clone();
+
+				TreeSearch treeSearch = new TreeSearch(strategy);
+				treeSearch.setGraphSearch(strategy == 'D');
+				treeSearch.solve(initial, false, false);
+
+				assertEquals(before.getState(), initial.getState(), String.valueOf(strategy));
+				assertEquals(before.getLastMove(), initial.getLastMove(), String.valueOf(strategy));
+			}
+		}
+	}
+
+
+	@Test
+	public void randomMoveOrdersKeepSolutionsShortest() {
+
+		for (char strategy : "BIAFM".toCharArray()) {
+			for (int i = 0; i < corpus.size(); i++) {
+
+				TreeSearch treeSearch = new TreeSearch(strategy);
+				treeSearch.setRandom(new SplittableRandom(i));
+
+				SearchResult result = treeSearch.solve(corpus.get(i), true, false);
+
+				assertEquals((int) depths.get(i), result.getSolutionDepth(), strategy + " on puzzle " + i);
+				assertReplays(corpus.get(i), result);
+			}
+		}
+	}
+
+
+	@Test
+	public void exactAndStrongerHeuristicsKeepSolutionsShortest() throws IOException {
+
+		for (char strategy : "AFM".toCharArray()) {
+			for (int i = 0; i < corpus.size(); i++) {
+
+				SearchState initial = corpus.get(i);
+
+				TreeSearch treeSearch = new TreeSearch(strategy);
+				treeSearch.setHeuristic(Heuristic.STRONGEST);
+
+				assertEquals((int) depths.get(i), treeSearch.solve(initial, false, false).getSolutionDepth(), strategy + " on puzzle " + i);
+
+				treeSearch.setDistanceDatabase(DistanceDatabase.load(initial.getDimension(), databases));
+
+				SearchResult result = treeSearch.solve(initial, false, false);
+
+				assertEquals((int) depths.get(i), result.getSolutionDepth(), strategy + " on puzzle " + i);
+				assertReplays(initial, result);
+			}
+		}
+	}
+
+
+	// The estimates updated move after move (as A*, IDA* and SMA* do) are the ones computed from scratch.
+	@Test
+	public void incrementalEstimatesMatchTheFullOnes() {
+
+		SplittableRandom random = new SplittableRandom(3);
+
+		for (Heuristic heuristic : new Heuristic[] {Heuristic.MANHATTAN, Heuristic.AGENT_DISTANCE, Heuristic.LINEAR_CONFLICT, Heuristic.STRONGEST}) {
+			for (int d = 3; d <= 6; d++) {
+
+				SearchState state = solved(d);
+				int estimate = heuristic.estimate(state);
+
+				for (int i = 0; i < 200; i++) {
+
+					SearchState child = walk(state, 1, random);
+					estimate = heuristic.estimateAfterMove(child, child.getLastMove(), estimate, state.getDistanceToSolution());
+
+					assertEquals(heuristic.estimate(child), estimate, heuristic.getDescription() + " on a " + d + " x " + d + " grid");
+					state = child;
+				}
+			}
+		}
+	}
+
+
+	@Test
+	public void parallelBreadthFirstSearchMatchesTheSequentialOne() {
+
+		for (int i = 0; i < corpus.size(); i++) {
+
+			TreeSearch treeSearch = new TreeSearch('B');
+			treeSearch.setParallelism(3);
+
+			SearchResult result = treeSearch.solve(corpus.get(i), false, false);
+
+			assertEquals((int) depths.get(i), result.getSolutionDepth(), "puzzle " + i);
+			assertReplays(corpus.get(i), result);
+		}
+	}
+
+
+	@Test
+	public void spillingBreadthFirstSearchMatchesTheSequentialOne(@TempDir File spillDirectory) {
+
+		for (int i = 0; i < corpus.size(); i++) {
+
+			// No memory off the heap: every segment of the frontier is a spill file.
+			TreeSearch treeSearch = new TreeSearch('B');
+			treeSearch.setGraphSearch(true);
+			treeSearch.setSpillingFrontier(0, spillDirectory);
+
+			SearchResult result = treeSearch.solve(corpus.get(i), false, false);
+
+			// Both expand the nodes in the same order, so they create and keep as many nodes.
+			TreeSearch sequential = new TreeSearch('B');
+			sequential.setGraphSearch(true);
+
+			SearchResult expected = sequential.solve(corpus.get(i), false, false);
+
+			assertEquals((int) depths.get(i), result.getSolutionDepth(), "puzzle " + i);
+			assertEquals(expected.getNodesCreated(), result.getNodesCreated(), "puzzle " + i);
+			assertEquals(expected.getPeakNodes(), result.getPeakNodes(), "puzzle " + i);
+			assertReplays(corpus.get(i), result);
+		}
+	}
+
+
+	// The spill files are deleted when the search ends, also when it is stopped before the solution.
+	@Test
+	public void spillingBreadthFirstSearchRemovesItsFiles(@TempDir File spillDirectory) {
+
+		SearchState initial = new SearchState(4);
+
+		TreeSearch treeSearch = new TreeSearch('B');
+		treeSearch.setSpillingFrontier(0, spillDirectory);
+		treeSearch.setMaxNodes(5000);
+
+		SearchResult result = treeSearch.solve(initial, false, false);
+
+		assertEquals(SearchResult.Termination.NODE_BUDGET, result.getTermination());
+		assertEquals(0, spillDirectory.listFiles().length);
+		assertReplays(initial, result);
+	}
+
+
+	// With little more memory than the depth of the solution, SMA* keeps forgetting its worst leaves (and regenerating them).
+	@Test
+	public void smaStarForgetsLeavesAndStaysOptimal() {
+
+		for (int i = 0; i < corpus.size(); i++) {
+
+			TreeSearch treeSearch = new TreeSearch('M');
+			treeSearch.setMemoryLimit(depths.get(i) + 3);
+
+			SearchResult result = treeSearch.solve(corpus.get(i), false, false);
+
+			assertEquals((int) depths.get(i), result.getSolutionDepth(), "puzzle " + i);
+			assertTrue(result.getPeakNodes() <= depths.get(i) + 3, "puzzle " + i);
+			assertReplays(corpus.get(i), result);
+		}
+	}
+
+
+	// Short walks from the solution of grids whose packed states take several words: the graph searches (which key the visited states
+	// by their packed form) and A* still find the shortest solutions.
+	@Test
+	public void largeGridsAreSolved() {
+
+		SplittableRandom random = new SplittableRandom(25);
+
+		for (int d : new int[] {10, 17, 32}) {
+
+			SearchState initial = walk(solved(d), 6, random);
+			int depth = shortestDepth(initial);
+
+			for (char strategy : "BIA".toCharArray()) {
+
+				TreeSearch treeSearch = new TreeSearch(strategy);
+				treeSearch.setGraphSearch(strategy != 'A');
+
+				SearchResult result = treeSearch.solve(initial, false, false);
+
+				assertEquals(depth, result.getSolutionDepth(), strategy + " on a " + d + " x " + d + " grid");
+				assertReplays(initial, result);
+			}
+		}
+	}
+
+
+	// A 1 x 1 grid is solved from the start by every strategy (the lookup and the exact heuristic included, though it has no database).
+	@Test
+	public void everyStrategySolvesTheSingleCellGrid() {
+
+		for (char strategy : "BDIAFTML".toCharArray()) {
+
+			BlockworldPuzzleSolver solver = new BlockworldPuzzleSolver(1, strategy, false, false, false, false);
+			solver.setDistanceDatabase(true);
+
+			SearchResult result = solver.solveResult();
+
+			assertTrue(result.isSolved(), String.valueOf(strategy));
+			assertEquals(0, result.getSolutionDepth(), String.valueOf(strategy));
+		}
+	}
+
+
+	// The solver rejects an unknown strategy, and the lookup or the exact heuristic on a grid larger than the distance database.
+	@Test
+	public void solversRejectTheConfigurationsTheyCannotRun() {
+
+		BlockworldPuzzleSolver solver = new BlockworldPuzzleSolver();
+
+		assertThrows(IllegalArgumentException.class, () -> solver.setStrategy('X'));
+
+		solver.setDimension(DistanceDatabase.MAX_DIMENSION + 1);
+		solver.setStrategy('L');
+
+		assertThrows(IllegalStateException.class, solver::checkGridSize);
+		assertThrows(IllegalStateException.class, solver::solveResult);
+
+		solver.setStrategy('A');
+		solver.checkGridSize();
+		solver.setDistanceDatabase(true);
+
+		assertThrows(IllegalStateException.class, solver::checkGridSize);
+	}
+
+
+	@Test
+	public void budgetsStopWithTheClosestStateFound() {
+
+		SearchState initial = new SearchState(4);
+
+		for (char strategy : "BIAFTMD".toCharArray()) {
+
+			TreeSearch treeSearch = new TreeSearch(strategy);
+			treeSearch.setMaxNodes(200);
+
+			SearchResult result = treeSearch.solve(initial, false, false);
+
+			assertEquals(SearchResult.Termination.NODE_BUDGET, result.getTermination(), String.valueOf(strategy));
+			assertTrue(result.getDistanceToSolution() <= initial.getDistanceToSolution(), String.valueOf(strategy));
+			assertReplays(initial, result);
+		}
+
+		TreeSearch treeSearch = new TreeSearch('B');
+		treeSearch.setParallelism(2);
+		treeSearch.setMaxNodes(200);
+
+		SearchResult result = treeSearch.solve(initial, false, false);
+
+		assertEquals(SearchResult.Termination.NODE_BUDGET, result.getTermination());
+		assertTrue(result.getNodesCreated() < 200 + 2 * 4);
+		assertReplays(initial, result);
+	}
+
+
+	// Replays the moves of the result from the initial state: they need to be legal and to reach the state reported.
+	private static void assertReplays(SearchState initial, SearchResult result) {
+
+		SearchState state = initial.clone();
+
+		for (int i = 0; i < result.getMoveCount(); i++) {
+
+			assertTrue(state.canMove(result.getMove(i)), "illegal move " + i);
+			state.move(result.getMove(i));
+		}
+
+		assertEquals(result.isSolved(), state.checkSolution());
+		assertEquals(result.getDistanceToSolution(), state.getDistanceToSolution());
+	}
+
+
+	// The depth of the shortest solution, found by a BFS over the distinct states.
+	private static int shortestDepth(SearchState initial) {
+
+		TreeSearch treeSearch = new TreeSearch('B');
+		treeSearch.setGraphSearch(true);
+
+		return treeSearch.solve(initial, false, false).getSolutionDepth();
+	}
+
+
+	// The solution of a d x d grid with the agent in the top right corner.
+	static SearchState solved(int d) {
+
+		int[] letters = new int[(d - 1) * 2];
+		for (int i = 0; i < d - 1; i++) {
+
+			letters[2 * i] = i + 1;
+			letters[2 * i + 1] = 1;
+		}
+
+		return new SearchState(d, 0, d - 1, letters);
+	}
+
+
+	// The state reached by the given number of random moves.
+	static SearchState walk(SearchState state, int moves, SplittableRandom random) {
+
+		for (int i = 0; i < moves; i++) {
+
+			char direction = "ULDR".charAt(random.nextInt(4));
+			if (state.canMove(direction)) {
+				state = state.deriveChild(direction);
+			}
+			else {
+				i--;
+			}
+		}
+
+		return state;
+	}
+
+}
@@ -0,0 +1,81 @@
+package blockworld.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import blockworld.SearchResult;
+import blockworld.SearchState;
+import blockworld.TreeSearch;
+
+// End-to-end benchmarks of TreeSearch.solve() for every strategy over a fixed corpus of start states.
+// SampleTime reports the p50/p90/p99 of a whole search, Throughput the number of searches per second.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+	
+	// B - BFS, I - IDS, A - A*, F - IDA*, T - Bidirectional BFS, M - SMA*, D - DFS (only with graph search, it wanders off otherwise)
+	@Param({"B", "I", "A", "F", "T", "M", "D", "L"})
+	private String strategy;
+	
+	// The corpus: the default 3x3 puzzle, a short 4x4 puzzle and the default 4x4 puzzle
+	@Param({"3-default", "4-custom", "4-default"})
+	private String puzzle;
+	
+	private SearchState initial;
+	
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		
+		switch(puzzle) {
+		
+			case "3-default": {
+				initial = new SearchState(3);
+				break;
+			}
+			case "4-custom": {
+				initial = new SearchState(4, 0, 1, 2, 0, 2, 1, 3, 1);
+				break;
+			}
+			case "4-default": {
+				initial = new SearchState(4);
+				break;
+			}
+			default: {
+				throw new IllegalArgumentException("This puzzle is not in the corpus: " + puzzle);
+			}
+		}
+	}
+	
+	
+	@Benchmark
+	public SearchResult search() {
+		
+		char strategyChar = strategy.charAt(0);
+		
+		TreeSearch treeSearch = new TreeSearch(strategyChar);
+		treeSearch.setGraphSearch(strategyChar == 'D');
+		
+		// The search would announce itself on the standard output while measuring.
+		treeSearch.setQuiet(true);
+		
+		return treeSearch.solve(initial, false, false);
+	}
+	
+}
@@ -0,0 +1,93 @@
+package blockworld.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import blockworld.SearchState;
+
+// Micro-benchmarks of the per-node state operations every search strategy is built on.
+// Run with -prof gc to see the allocation rate of each operation next to its throughput.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+	
+	// Grid dimensions: a small board, a mid-size one, one above the single-long packing limit and the largest boards (several longs)
+	@Param({"4", "6", "10", "16", "32"})
+	private int dimension;
+	
+	private SearchState state;
+	
+	// Alternates the direction so that move/unmove and deriveChild always have a legal move
+	private char direction;
+	
+	
+	@Setup
+	public void setUp() {
+		
+		state = new SearchState(dimension);
+		direction = state.canMove('L') ? 'L' : 'R';
+	}
+	
+	
+	@Benchmark
+	public SearchState cloneState() {
+		
+		return state.clone();
+	}
+	
+	
+	@Benchmark
+	public SearchState deriveChild() {
+		
+		return state.deriveChild(direction);
+	}
+	
+	
+	@Benchmark
+	public int moveUnmove() {
+		
+		char previousMove = state.getLastMove();
+		state.move(direction);
+		int distance = state.getDistanceToSolution();
+		state.unmove(direction, previousMove);
+		
+		return distance;
+	}
+	
+	
+	@Benchmark
+	public int canMove() {
+		
+		int legal = 0;
+		
+		if (state.canMove('U')) legal ++;
+		if (state.canMove('D')) legal ++;
+		if (state.canMove('L')) legal ++;
+		if (state.canMove('R')) legal ++;
+		
+		return legal;
+	}
+	
+	
+	@Benchmark
+	public boolean checkSolution() {
+		
+		return state.checkSolution();
+	}
+	
+}